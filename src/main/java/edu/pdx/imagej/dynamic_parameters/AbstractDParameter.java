@@ -19,6 +19,14 @@
 
 package edu.pdx.imagej.dynamic_parameters;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
 import ij.gui.GenericDialog;
 
 import org.scijava.Context;
@@ -66,14 +74,34 @@ public abstract class AbstractDParameter<T> extends AbstractRichPlugin implement
      * This function defaults to returning what was passed into the constructor.
      */
     @Override public String label() {return M_label;}
+    /** Get the label as it should be shown to the user.
+     * <p>
+     * This is {@link DParameter#displayLabel} of {@link label}, but it is only
+     * computed once.
+     *
+     * @return The label to show to the user.
+     */
+    protected final String displayLabel()
+    {
+        if (M_displayLabel == null) {
+            M_displayLabel = DParameter.displayLabel(label());
+        }
+        return M_displayLabel;
+    }
     /** {@inheritDoc} */
-    @Override public boolean visible() {return M_visible;}
+    @Override public boolean visible() {return (M_visibility & VISIBLE) != 0;}
     /** {@inheritDoc} */
-    @Override public boolean visibilityChanged() {return M_visible != M_newVisible;}
+    @Override public boolean visibilityChanged() {return ownVisibilityChanged();}
     /** {@inheritDoc} */
-    @Override public void setNewVisibility(boolean value) {M_newVisible = value;}
+    @Override public void setNewVisibility(boolean value)
+    {
+        boolean before = visibilityChanged();
+        if (value) M_visibility |= NEW_VISIBLE;
+        else M_visibility &= ~NEW_VISIBLE;
+        tellParent(before);
+    }
     /** {@inheritDoc} */
-    @Override public void refreshVisibility() {M_visible = M_newVisible;}
+    @Override public void refreshVisibility() {ownRefreshVisibility();}
     /** {@inheritDoc}
      * <p>
      * This function defaults to returning <code>false</code>.
@@ -87,15 +115,16 @@ public abstract class AbstractDParameter<T> extends AbstractRichPlugin implement
     /** {@inheritDoc}
      * <p>
      * This function defaults to returning the string passed into the last call
-     * to {@link setError}.
+     * to {@link setError}, or the string made by the last call to
+     * {@link setLazyError}.
      */
-    @Override public String getError() {return M_error;}
+    @Override public String getError() {return ownError();}
     /** {@inheritDoc}
      * <p>
      * This function defaults to returning the string passed into the last call
      * to {@link setWarning}.
      */
-    @Override public String getWarning() {return M_warning;}
+    @Override public String getWarning() {return ownWarning();}
     /** {@inheritDoc}
      * <p>
      * This function defaults to returning false.
@@ -108,6 +137,87 @@ public abstract class AbstractDParameter<T> extends AbstractRichPlugin implement
      */
     @Override public void setHarvester(Harvester h) {M_harvester = h;}
 
+    /** {@inheritDoc}
+     * <p>
+     * This function defaults to returning the parameters passed into
+     * {@link dependsOn}.
+     */
+    @Override
+    public Collection<? extends DParameter<?>> dependencies()
+        {return M_dependencies;}
+
+    /** Add a listener that is called whenever the value of this parameter
+     * changes.
+     * <p>
+     * The listener is only called when the value is actually different, so
+     * choosing the same value again in the dialog does nothing.  Listeners are
+     * called in the order that they were added, on the thread that changed the
+     * value.
+     *
+     * @param listener The listener to add.
+     */
+    public void addValueListener(ValueListener<? super T> listener)
+    {
+        if (M_listeners.isEmpty()) {
+            M_listeners = new ArrayList<>();
+            M_lastValue = getValue();
+            M_lastKey = changeKey();
+        }
+        M_listeners.add(listener);
+    }
+    /** Remove a listener added with {@link addValueListener}.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeValueListener(ValueListener<? super T> listener)
+    {
+        M_listeners.remove(listener);
+    }
+
+    /** Declare that this parameter depends on other parameters.
+     * <p>
+     * After this, {@link dependencyChanged} will be called whenever one of
+     * <code>params</code> changes.  Call it in the constructor or in
+     * {@link initialize}.
+     *
+     * @param params The parameters this one depends on.
+     */
+    protected final void dependsOn(DParameter<?>... params)
+    {
+        if (M_dependencies.isEmpty()) M_dependencies = new ArrayList<>();
+        M_dependencies.addAll(Arrays.asList(params));
+    }
+    /** Tell the listeners if the value has changed.
+     * <p>
+     * Call this after anything that might change the value, such as at the
+     * end of {@link readFromDialog} and {@link readFromPrefs}.  It compares
+     * {@link changeKey} with the one from the last time, and calls the
+     * listeners only if they are different.  If there are no listeners, this
+     * does nothing at all, not even call {@link getValue}.
+     */
+    protected final void notifyIfChanged()
+    {
+        if (M_listeners.isEmpty()) return;
+        Object key = changeKey();
+        if (Objects.deepEquals(key, M_lastKey)) return;
+        M_lastKey = key;
+        T value = getValue();
+        T oldValue = M_lastValue;
+        M_lastValue = value;
+        for (int i = 0; i < M_listeners.size(); ++i) {
+            M_listeners.get(i).valueChanged(oldValue, value);
+        }
+    }
+    /** Get what {@link notifyIfChanged} compares to tell if the value has
+     * changed.
+     * <p>
+     * This defaults to {@link getValue}.  If the value is a new object each
+     * time and doesn't implement <code>equals</code>, override this to return
+     * something that does, and that changes whenever the value does.
+     *
+     * @return What to compare with the last time.
+     */
+    protected Object changeKey() {return getValue();}
     /** Sets the error.
      * <p>
      * The string passed into this function will be used as the error for
@@ -115,7 +225,28 @@ public abstract class AbstractDParameter<T> extends AbstractRichPlugin implement
      *
      * @param error The error string
      */
-    protected final void setError(String error) {M_error = error;}
+    protected final void setError(String error)
+    {
+        M_error = error;
+        M_lazyError = null;
+    }
+    /** Sets the error to a message that is only made when it is needed.
+     * <p>
+     * <code>error</code> will not be called until {@link getError} is called,
+     * and then its result is kept until the error is set again.  This is useful
+     * for errors that are checked for on every change to the dialog, because
+     * the message doesn't need to be made each time.  To avoid making any new
+     * objects at all, keep the same Supplier around and pass it in each time,
+     * having it look at the parameter's fields to make the message.
+     *
+     * @param error A function making the error string.  It must not return
+     *              <code>null</code>.
+     */
+    protected final void setLazyError(Supplier<String> error)
+    {
+        M_error = null;
+        M_lazyError = error;
+    }
     /** Sets the warning.
      * <p>
      * The string passed into this function will be used as the warning for
@@ -132,6 +263,41 @@ public abstract class AbstractDParameter<T> extends AbstractRichPlugin implement
      * @return The PrefService associated with the context
      */
     protected final PrefService prefs() {return context().getService(PrefService.class);}
+    // These are the defaults above, which subclasses can't change.  They are
+    // used by ParameterTree to look at a HoldingParameter without going
+    // through all of the parameters inside of it.
+    final boolean ownVisibilityChanged()
+    {
+        // The two bits are different
+        return M_visibility == VISIBLE || M_visibility == NEW_VISIBLE;
+    }
+    final void ownRefreshVisibility()
+    {
+        boolean before = visibilityChanged();
+        M_visibility = (M_visibility & NEW_VISIBLE) != 0
+                     ? VISIBLE | NEW_VISIBLE : 0;
+        tellParent(before);
+    }
+    // The HoldingParameter holding this one keeps count of how many of its
+    // parameters have changed visibility, so it needs to know when
+    // visibilityChanged() changes
+    final void tellParent(boolean visibilityChangedBefore)
+    {
+        if (M_parent != null && reportsVisibility()
+                && visibilityChanged() != visibilityChangedBefore) {
+            M_parent.childVisibilityChanged(!visibilityChangedBefore);
+        }
+    }
+    // Whether this can tell its parent every time visibilityChanged()
+    // changes.  If not, the parent asks it every time instead.
+    boolean reportsVisibility() {return true;}
+    final String ownError()
+    {
+        if (M_error == null && M_lazyError != null) M_error = M_lazyError.get();
+        return M_error;
+    }
+    final String ownWarning() {return M_warning;}
+
     /** The harvester that this parameter is in.
      * <p>
      * It is set by {@link setHarvester} after initialization, but before the
@@ -140,8 +306,19 @@ public abstract class AbstractDParameter<T> extends AbstractRichPlugin implement
     protected Harvester M_harvester;
 
     private String M_label;
+    private String M_displayLabel;
     private String M_error;
+    private Supplier<String> M_lazyError;
     private String M_warning;
-    private boolean M_visible = true;
-    private boolean M_newVisible = true;
+    // VISIBLE is what visible() returns, and NEW_VISIBLE is what it will
+    // return after refreshVisibility()
+    private static final int VISIBLE = 1;
+    private static final int NEW_VISIBLE = 2;
+    private int M_visibility = VISIBLE | NEW_VISIBLE;
+    // Set by HoldingParameter when this is added to it
+    HoldingParameter<?> M_parent;
+    private List<DParameter<?>> M_dependencies = Collections.emptyList();
+    private List<ValueListener<? super T>> M_listeners = Collections.emptyList();
+    private T M_lastValue;
+    private Object M_lastKey;
 }
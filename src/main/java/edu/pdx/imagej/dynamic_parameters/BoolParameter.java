@@ -44,6 +44,22 @@ public class BoolParameter extends AbstractDParameter<Boolean> {
      */
     @Override
     public Boolean getValue() {return M_value;}
+    /** Sets the boolean in this parameter.
+     *
+     * @param value The new value.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>.
+     */
+    @Override
+    public void setValue(Boolean value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        M_value = value;
+        notifyIfChanged();
+    }
 
     /** Adds this parameter to the dialog.
      */
@@ -58,6 +74,7 @@ public class BoolParameter extends AbstractDParameter<Boolean> {
     public void readFromDialog()
     {
         M_value = M_supplier.get();
+        notifyIfChanged();
     }
     /** Save this parameter to {@link prefs}
      */
@@ -66,7 +83,10 @@ public class BoolParameter extends AbstractDParameter<Boolean> {
     /** Read this parameter from {@link prefs}
      */
     public void readFromPrefs(Class<?> c, String name)
-        {M_value = prefs().getBoolean(c, name, M_value);}
+    {
+        M_value = prefs().getBoolean(c, name, M_value);
+        notifyIfChanged();
+    }
 
     private String M_label;
     private boolean M_value;
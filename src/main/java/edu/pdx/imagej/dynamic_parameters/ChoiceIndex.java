@@ -0,0 +1,54 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.HashMap;
+
+/** ChoiceIndex is a list of choices along with a map from each choice to its
+ * index, so that finding a choice doesn't need to look through all of them.
+ * <p>
+ * If a choice appears more than once, {@link indexOf} returns the first one.
+ */
+final class ChoiceIndex {
+    ChoiceIndex(String[] choices)
+    {
+        M_choices = choices;
+        M_indices = new HashMap<>(choices.length * 4 / 3 + 1);
+        for (int i = 0; i < choices.length; ++i) {
+            M_indices.putIfAbsent(choices[i], i);
+        }
+    }
+    // Returns -1 if the choice isn't found
+    int indexOf(String choice)
+    {
+        Integer result = M_indices.get(choice);
+        return result == null ? -1 : result;
+    }
+    // Returns null for -1
+    String get(int index)
+    {
+        return index == -1 ? null : M_choices[index];
+    }
+    String[] choices() {return M_choices;}
+    int size() {return M_choices.length;}
+
+    private final String[]                 M_choices;
+    private final HashMap<String, Integer> M_indices;
+}
@@ -31,10 +31,120 @@ import java.util.function.Supplier;
  * @author David Cohoe
  */
 public interface DPDialog {
+    /** This interface describes a floating point number that can be returned
+     * from a dialog.  It acts similarly to the {@link Supplier}s that other
+     * {@link DPDialog} functions return, but it also has support for bounds.
+     * <p>
+     * Everything here uses primitive <code>double</code>s, so reading the
+     * number never allocates anything.  Implementations should only parse the
+     * number once each time it changes, so calling {@link get} several times is
+     * cheap.
+     */
+    public interface DialogDouble {
+        /** Check if the current value is a valid number.  If it is not, the
+         * receiver should interpret it as an error.
+         *
+         * @return Whether or not the current value is a number.
+         */
+        public boolean valid();
+        /** Get the current value.  This is only meaningful if {@link valid}
+         * returns <code>true</code>.
+         *
+         * @return The current value represented by this DialogDouble.
+         */
+        public double get();
+        /** Check if a value is in bounds.  The bounds are those set by the last
+         * call to <code>setBounds</code>.
+         *
+         * @param value The value to check.
+         * @return Whether or not the value is in the bounds.
+         */
+        public boolean inBounds(double value);
+        /** Set the bounds for this number.  This will affect calls to
+         * <code>inBounds</code>, and it can also possibly affect the dialog as
+         * well.
+         *
+         * @param min The minimum value this number can take.
+         * @param max The maximum value this number can take.
+         */
+        public void setBounds(double min, double max);
+    }
+    /** This interface describes an integer that can be returned from a dialog.
+     * It is the same as {@link DialogDouble}, but for <code>int</code>s.
+     */
+    public interface DialogInteger {
+        /** Check if the current value is a valid integer.  If it is not, the
+         * receiver should interpret it as an error.
+         *
+         * @return Whether or not the current value is an integer.
+         */
+        public boolean valid();
+        /** Get the current value.  This is only meaningful if {@link valid}
+         * returns <code>true</code>.
+         *
+         * @return The current value represented by this DialogInteger.
+         */
+        public int get();
+        /** Check if a value is in bounds.  The bounds are those set by the last
+         * call to <code>setBounds</code>.
+         *
+         * @param value The value to check.
+         * @return Whether or not the value is in the bounds.
+         */
+        public boolean inBounds(int value);
+        /** Set the bounds for this number.  This will affect calls to
+         * <code>inBounds</code>, and it can also possibly affect the dialog as
+         * well.
+         *
+         * @param min The minimum value this number can take.
+         * @param max The maximum value this number can take.
+         */
+        public void setBounds(int min, int max);
+    }
+    /** This interface describes a long integer that can be returned from a
+     * dialog.  It is the same as {@link DialogDouble}, but for
+     * <code>long</code>s.
+     */
+    public interface DialogLong {
+        /** Check if the current value is a valid integer.  If it is not, the
+         * receiver should interpret it as an error.
+         *
+         * @return Whether or not the current value is an integer.
+         */
+        public boolean valid();
+        /** Get the current value.  This is only meaningful if {@link valid}
+         * returns <code>true</code>.
+         *
+         * @return The current value represented by this DialogLong.
+         */
+        public long get();
+        /** Check if a value is in bounds.  The bounds are those set by the last
+         * call to <code>setBounds</code>.
+         *
+         * @param value The value to check.
+         * @return Whether or not the value is in the bounds.
+         */
+        public boolean inBounds(long value);
+        /** Set the bounds for this number.  This will affect calls to
+         * <code>inBounds</code>, and it can also possibly affect the dialog as
+         * well.
+         *
+         * @param min The minimum value this number can take.
+         * @param max The maximum value this number can take.
+         */
+        public void setBounds(long min, long max);
+    }
     /** This interface describes a number that can be returned from a dialog.
      * It acts similarly to the {@link Supplier}s that other {@link DPDialog}
      * functions return, but it also has support for bounds.
+     *
+     * @deprecated The dialog now returns {@link DialogDouble},
+     *             {@link DialogInteger}, and {@link DialogLong}, which do not
+     *             box every value they read.  Code that still uses this
+     *             interface can wrap them with one of the <code>of</code>
+     *             functions.
      */
+    @Deprecated
     public interface DialogNumber<T extends Number & Comparable<T>> {
         /** Get the current value.  This function is allowed to return
          * <code>null</code>, which the receiver should interpret as an error.
@@ -58,6 +168,55 @@ public interface DPDialog {
          * @param max The maximum value this number can take.
          */
         public void setBounds(T min, T max);
+
+        /** Wrap a {@link DialogDouble} as a DialogNumber.
+         *
+         * @param number The number to wrap.
+         * @return A DialogNumber that reads from <code>number</code>.
+         */
+        public static DialogNumber<Double> of(DialogDouble number)
+        {
+            return new DialogNumber<Double>() {
+                @Override public Double get()
+                    {return number.valid() ? number.get() : null;}
+                @Override public boolean inBounds(Double value)
+                    {return number.inBounds(value);}
+                @Override public void setBounds(Double min, Double max)
+                    {number.setBounds(min, max);}
+            };
+        }
+        /** Wrap a {@link DialogInteger} as a DialogNumber.
+         *
+         * @param number The number to wrap.
+         * @return A DialogNumber that reads from <code>number</code>.
+         */
+        public static DialogNumber<Integer> of(DialogInteger number)
+        {
+            return new DialogNumber<Integer>() {
+                @Override public Integer get()
+                    {return number.valid() ? number.get() : null;}
+                @Override public boolean inBounds(Integer value)
+                    {return number.inBounds(value);}
+                @Override public void setBounds(Integer min, Integer max)
+                    {number.setBounds(min, max);}
+            };
+        }
+        /** Wrap a {@link DialogLong} as a DialogNumber.
+         *
+         * @param number The number to wrap.
+         * @return A DialogNumber that reads from <code>number</code>.
+         */
+        public static DialogNumber<Long> of(DialogLong number)
+        {
+            return new DialogNumber<Long>() {
+                @Override public Long get()
+                    {return number.valid() ? number.get() : null;}
+                @Override public boolean inBounds(Long value)
+                    {return number.inBounds(value);}
+                @Override public void setBounds(Long min, Long max)
+                    {number.setBounds(min, max);}
+            };
+        }
     }
     /** Add a boolean to the dialog.
      *
@@ -85,23 +244,53 @@ public interface DPDialog {
      *         value.
      */
     Supplier<Integer> addChoiceIndex(String label, String defaultValue, String[] choices);
+    /** Add a searchable choice of strings to the dialog.  This should be used
+     * instead of {@link addChoice} when there are too many choices to
+     * reasonably put in a normal choice box.  The user types the start of the
+     * choice they want, and only the choices that start with it are shown.
+     * <p>
+     * By default, this just calls {@link addChoice}.
+     *
+     * @param label The label to be used on the dialog.
+     * @param defaultValue The default value for the string.
+     * @param choices The possible choices to choose from.
+     * @return A {@link Supplier} that will return the current value.
+     */
+    default Supplier<String> addSearchableChoice(String label,
+                                                  String defaultValue,
+                                                  String[] choices)
+    {
+        return addChoice(label, defaultValue, choices);
+    }
     /** Add a floating point number to the dialog.
      *
      * @param label The label to be used on the dialog.
      * @param defaultValue The default value for the number.
      * @param units The units to display for this value.
      * @param decimals The number of decimal points supported.
-     * @return A {@link DialogNumber} that represents the current value.
+     * @return A {@link DialogDouble} that represents the current value.
      */
-    DialogNumber<Double> addDouble(String label, double defaultValue, String units, int decimals);
+    DialogDouble addDouble(String label, double defaultValue, String units, int decimals);
     /** Add an integer to the dialog.
      *
      * @param label The label to be used on the dialog.
      * @param defaultValue The default value for the integer.
      * @param units The units to display for this value.
-     * @return A {@link DialogNumber} that represents the current value.
+     * @return A {@link DialogInteger} that represents the current value.
+     */
+    DialogInteger addInteger(String label, int defaultValue, String units);
+    /** Add a long integer to the dialog.
+     * <p>
+     * Implementations should parse the number as a <code>long</code> directly,
+     * rather than going through a <code>double</code>, so that numbers larger
+     * than 2<sup>53</sup> keep all of their digits.
+     *
+     * @param label The label to be used on the dialog.
+     * @param defaultValue The default value for the integer.
+     * @param units The units to display for this value.
+     * @return A {@link DialogLong} that represents the current value.
      */
-    DialogNumber<Integer> addInteger(String label, int defaultValue, String units);
+    DialogLong addLong(String label, long defaultValue, String units);
     /** Add a panel to the dialog.
      *
      * @param panel The panel to add.
@@ -19,6 +19,9 @@
 
 package edu.pdx.imagej.dynamic_parameters;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.scijava.Context;
 import org.scijava.Contextual;
 import net.imagej.ImageJPlugin;
@@ -208,6 +211,27 @@ public interface DParameter<T> extends Contextual, ImageJPlugin {
      * @return The value stored in this parameter.
      */
     T getValue();
+    /** Set the value stored in this parameter directly.
+     * <p>
+     * This is for using parameters from scripts or other code, where there is
+     * no dialog and the prefs shouldn't be touched.  The value is checked the
+     * same way as a value from the dialog, so if it isn't allowed,
+     * {@link getError} will say why.  If the new value changes the visibility
+     * of any parameters, it is marked with {@link setNewVisibility} just like
+     * when reading from the dialog, and {@link refreshVisibility} still needs
+     * to be called.  {@link Harvester#setValue} does all of this for you.
+     * <p>
+     * The default throws an UnsupportedOperationException, because not every
+     * parameter can be set from a value.
+     *
+     * @param value The new value.
+     * @throws UnsupportedOperationException If this parameter can't be set.
+     */
+    default void setValue(T value)
+    {
+        throw new UnsupportedOperationException("The parameter "
+            + displayLabel(label()) + " can't be set directly.");
+    }
     /** Set the Harvester that this parameter is in.
      * <p>
      * Some parameters may need a reference to the {@link Harvester} that they
@@ -216,6 +240,31 @@ public interface DParameter<T> extends Contextual, ImageJPlugin {
      * @param h The {@link Harvester} that this parameter is inside.
      */
     void setHarvester(Harvester h);
+    /** Get the parameters that this parameter depends on.
+     * <p>
+     * If anything about this parameter, such as its bounds, visibility, or
+     * error, depends on the value of other parameters, return them here.  The
+     * {@link Harvester} uses them to call {@link dependencyChanged} only when
+     * one of them changes, rather than making every parameter check everything
+     * on every change.  The dependencies must not form a cycle.
+     * <p>
+     * This is only asked for when the {@link Harvester} is created, so it
+     * should not change after that.  The default returns an empty
+     * collection.
+     *
+     * @return The parameters this one depends on.
+     */
+    default Collection<? extends DParameter<?>> dependencies()
+        {return Collections.emptyList();}
+    /** React to a change in the parameters this one depends on.
+     * <p>
+     * This is called by the {@link Harvester} after any of the parameters
+     * returned by {@link dependencies} changed, directly or through their own
+     * dependencies.  Parameters are always updated after everything they
+     * depend on has been updated.  It is also called once before the dialog is
+     * first shown.  The default does nothing.
+     */
+    default void dependencyChanged() {}
 
     static String displayLabel(String label)
     {
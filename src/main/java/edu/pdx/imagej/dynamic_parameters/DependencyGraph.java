@@ -0,0 +1,204 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/** DependencyGraph holds the {@link DParameter#dependencies dependencies}
+ * between all of the parameters in a tree, so that the {@link Harvester} only
+ * needs to update the parameters that depend on something that changed.
+ * <p>
+ * The parameters are sorted so that everything comes after what it depends
+ * on.  Each {@link update} takes a {@link ParameterSnapshot} of every
+ * parameter that something depends on, and if it changed since the last
+ * update, calls {@link DParameter#dependencyChanged} on everything that
+ * depends on it, directly or not, in that order.  When it is known which
+ * parameter changed, {@link update(DParameter)} only takes snapshots of that
+ * parameter, the HoldingParameters it is in, and what is updated because of
+ * them.
+ * <p>
+ * The graph can't change once it is made, so if parameters are added to or
+ * removed from a {@link HoldingParameter}, a new graph has to be made.  Giving
+ * it a structure listener lets it tell whoever made it when that happens, and
+ * {@link detach} takes the listener away again once the graph is replaced.
+ */
+final class DependencyGraph {
+    DependencyGraph(DParameter<?>[] params)
+    {
+        this(params, null);
+    }
+    // structureListener is given to every HoldingParameter in the graph, if
+    // it isn't null
+    DependencyGraph(DParameter<?>[] params, Runnable structureListener)
+    {
+        M_structureListener = structureListener;
+        for (DParameter<?> param : params) collect(param, -1);
+        // A dependency outside of the tree can still change, so it needs to be
+        // in the graph too
+        for (int i = 0; i < M_nodes.size(); ++i) {
+            for (DParameter<?> dependency : M_nodes.get(i).dependencies()) {
+                if (!M_indices.containsKey(dependency)) {
+                    M_indices.put(dependency, M_nodes.size());
+                    M_nodes.add(dependency);
+                    M_parents.add(-1);
+                }
+            }
+        }
+        int size = M_nodes.size();
+        // Edges go from a parameter to the parameters that depend on it
+        ArrayList<ArrayList<Integer>> dependents = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) dependents.add(new ArrayList<>());
+        int[] dependencyCount = new int[size];
+        for (int i = 0; i < size; ++i) {
+            for (DParameter<?> dependency : M_nodes.get(i).dependencies()) {
+                dependents.get(M_indices.get(dependency)).add(i);
+                ++dependencyCount[i];
+            }
+        }
+        // Kahn's algorithm
+        M_order = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < size; ++i) {
+            if (dependencyCount[i] == 0) M_order[tail++] = i;
+        }
+        while (head < tail) {
+            for (int dependent : dependents.get(M_order[head++])) {
+                if (--dependencyCount[dependent] == 0) {
+                    M_order[tail++] = dependent;
+                }
+            }
+        }
+        if (tail != size) {
+            for (int i = 0; i < size; ++i) {
+                if (dependencyCount[i] != 0) {
+                    throw new IllegalStateException("The dependencies of "
+                        + DParameter.displayLabel(M_nodes.get(i).label())
+                        + " form a cycle.");
+                }
+            }
+        }
+        M_dependents = new int[size][];
+        for (int i = 0; i < size; ++i) {
+            ArrayList<Integer> list = dependents.get(i);
+            M_dependents[i] = new int[list.size()];
+            for (int j = 0; j < list.size(); ++j) {
+                M_dependents[i][j] = list.get(j);
+            }
+        }
+        M_last = new ParameterSnapshot[size];
+        M_dirty = new boolean[size];
+        M_check = new boolean[size];
+    }
+    // Returns true if any parameter was updated
+    boolean update()
+    {
+        Arrays.fill(M_check, true);
+        return propagate();
+    }
+    // The same as update(), for when only changed has changed since the last
+    // update
+    boolean update(DParameter<?> changed)
+    {
+        Integer index = M_indices.get(changed);
+        if (index != null) check(index);
+        return propagate();
+    }
+    // Takes the structure listener away from every HoldingParameter in the
+    // graph
+    void detach()
+    {
+        if (M_structureListener == null) return;
+        for (DParameter<?> param : M_nodes) {
+            if (param instanceof HoldingParameter) {
+                ((HoldingParameter<?>)param)
+                    .removeStructureListener(M_structureListener);
+            }
+        }
+    }
+
+    private boolean propagate()
+    {
+        boolean result = false;
+        for (int i : M_order) {
+            DParameter<?> param = M_nodes.get(i);
+            if (M_dirty[i]) {
+                M_dirty[i] = false;
+                param.dependencyChanged();
+                result = true;
+                for (int dependent : M_dependents[i]) M_dirty[dependent] = true;
+                check(i);
+            }
+            if (!M_check[i]) continue;
+            M_check[i] = false;
+            if (M_dependents[i].length != 0) {
+                ParameterSnapshot snapshot = ParameterSnapshot.of(param, M_last[i]);
+                if (snapshot != M_last[i]) {
+                    M_last[i] = snapshot;
+                    for (int dependent : M_dependents[i]) {
+                        M_dirty[dependent] = true;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Marks a parameter and the HoldingParameters it is in to be looked at.
+    // A holder that comes earlier in the order is looked at in the next
+    // update.
+    private void check(int index)
+    {
+        for (int i = index; i != -1; i = M_parents.get(i)) M_check[i] = true;
+    }
+    private void collect(DParameter<?> param, int parent)
+    {
+        if (M_indices.containsKey(param)) return;
+        M_indices.put(param, M_nodes.size());
+        M_nodes.add(param);
+        M_parents.add(parent);
+        if (param instanceof HoldingParameter) {
+            HoldingParameter<?> holder = (HoldingParameter<?>)param;
+            if (M_structureListener != null) {
+                holder.addStructureListener(M_structureListener);
+            }
+            int index = M_nodes.size() - 1;
+            for (DParameter<?> child : holder.getAllParams()) {
+                collect(child, index);
+            }
+        }
+    }
+
+    private final ArrayList<DParameter<?>>              M_nodes = new ArrayList<>();
+    private final IdentityHashMap<DParameter<?>, Integer> M_indices
+        = new IdentityHashMap<>();
+    private final int[]                                 M_order;
+    private final int[][]                               M_dependents;
+    // The last snapshot of every parameter that something depends on
+    private final ParameterSnapshot[]                   M_last;
+    private final boolean[]                             M_dirty;
+    // The parameters whose snapshots need to be taken in the next update
+    private final boolean[]                             M_check;
+    // The index of the HoldingParameter each parameter is in, or -1
+    private final ArrayList<Integer>                    M_parents = new ArrayList<>();
+    private final Runnable                              M_structureListener;
+}
@@ -0,0 +1,198 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.function.Supplier;
+
+import org.scijava.plugin.Plugin;
+
+/** DoubleArrayParameter is a {@link DParameter} that holds an array of
+ * floating point numbers.
+ * <p>
+ * The numbers are typed into one text box, separated by commas, semicolons, or
+ * whitespace, and are saved to the prefs as one entry.  Like
+ * {@link DoubleParameter}, it has support for bounds checking using
+ * {@link setBounds}, which is checked for every element.  The number of
+ * elements can also be checked using {@link setLength}.
+ */
+@Plugin(type = DParameter.class)
+public class DoubleArrayParameter extends AbstractDParameter<double[]> {
+    /** Construct using a starting value and its label.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     */
+    public DoubleArrayParameter(double[] startingValue, String label)
+    {
+        super(label);
+        M_value = startingValue;
+        M_label = label;
+        checkForErrors();
+    }
+    /** Gets the numbers from this parameter.
+     * <p>
+     * The array returned is the one held by this parameter, so it should not be
+     * modified.
+     *
+     * @return The numbers from this parameter
+     */
+    @Override
+    public double[] getValue() {return M_value;}
+    /** Sets the numbers in this parameter.
+     * <p>
+     * The array is copied, so it can be changed afterwards.  If any element
+     * or the number of elements is outside of the bounds, it is treated as an
+     * error.
+     *
+     * @param value The new numbers.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>.
+     */
+    @Override
+    public void setValue(double[] value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        M_value = value.clone();
+        M_parsed = true;
+        checkForErrors();
+        notifyIfChanged();
+    }
+    /** Sets the bounds for each element.
+     * <p>
+     * If any element is outside of the interval <code>[min, max]</code>, it
+     * will be treated as an error.
+     *
+     * @param min The minimum value that each element should take
+     * @param max The maximum value that each element should take
+     */
+    public void setBounds(double min, double max)
+    {
+        M_min = min;
+        M_max = max;
+        M_errorCode = -1;
+        checkForErrors();
+    }
+    /** Sets the bounds for the number of elements.
+     * <p>
+     * If the number of elements is outside of the interval
+     * <code>[min, max]</code>, it will be treated as an error.
+     *
+     * @param min The minimum number of elements
+     * @param max The maximum number of elements
+     */
+    public void setLength(int min, int max)
+    {
+        M_minLength = min;
+        M_maxLength = max;
+        M_errorCode = -1;
+        checkForErrors();
+    }
+
+    /** Adds this parameter to the dialog.
+     */
+    @Override
+    public void addToDialog(DPDialog dialog)
+    {
+        M_supplier = dialog.addTextBox(M_label, NumberList.format(M_value));
+    }
+    /** Reads this parameter from the dialog.
+     */
+    @Override
+    public void readFromDialog()
+    {
+        double[] value = NumberList.parseDoubles(M_supplier.get());
+        M_parsed = value != null;
+        if (M_parsed) M_value = value;
+        checkForErrors();
+        notifyIfChanged();
+    }
+    /** Save this parameter to {@link prefs}
+     */
+    @Override
+    public void saveToPrefs(Class<?> c, String name)
+        {prefs().put(c, name, NumberList.format(M_value));}
+    /** Read this parameter from {@link prefs}
+     */
+    @Override
+    public void readFromPrefs(Class<?> c, String name)
+    {
+        String text = prefs().get(c, name);
+        if (text == null) return;
+        double[] value = NumberList.parseDoubles(text);
+        if (value != null) M_value = value;
+        checkForErrors();
+        notifyIfChanged();
+    }
+
+    // The error is stored as one of these codes, and the message is only made
+    // when the harvester asks for it.
+    private static final int NO_ERROR = 0;
+    private static final int NOT_NUMBERS = 1;
+    private static final int WRONG_LENGTH = 2;
+    private static final int OUT_OF_BOUNDS = 3;
+    private void checkForErrors()
+    {
+        int code = NO_ERROR;
+        if (!M_parsed) code = NOT_NUMBERS;
+        else if (M_value.length < M_minLength || M_value.length > M_maxLength) {
+            code = WRONG_LENGTH;
+        }
+        else {
+            for (int i = 0; i < M_value.length; ++i) {
+                if (!(M_value[i] >= M_min && M_value[i] <= M_max)) {
+                    code = OUT_OF_BOUNDS;
+                    if (i != M_errorIndex) M_errorCode = -1;
+                    M_errorIndex = i;
+                    break;
+                }
+            }
+        }
+        if (code == M_errorCode) return;
+        M_errorCode = code;
+        if (code == NO_ERROR) setError(null);
+        else setLazyError(M_errorMessage);
+    }
+    private String errorMessage()
+    {
+        if (M_errorCode == NOT_NUMBERS) {
+            return displayLabel() + " must be a list of numbers.";
+        }
+        if (M_errorCode == WRONG_LENGTH) {
+            if (M_minLength == M_maxLength) return displayLabel() + " must have " + M_minLength + " numbers.";
+            else return displayLabel() + " must have between " + M_minLength + " and " + M_maxLength + " numbers.";
+        }
+        return "Number " + (M_errorIndex + 1) + " of " + displayLabel() + " must be in the range [" + M_min + " .. " + M_max + "].";
+    }
+
+    private double[] M_value;
+    private boolean M_parsed = true;
+    private double M_min = -Double.MAX_VALUE;
+    private double M_max = Double.MAX_VALUE;
+    private int M_minLength = 0;
+    private int M_maxLength = Integer.MAX_VALUE;
+    private String M_label;
+    private Supplier<String> M_supplier;
+    private int M_errorCode = NO_ERROR;
+    private int M_errorIndex = -1;
+    private Supplier<String> M_errorMessage = this::errorMessage;
+}
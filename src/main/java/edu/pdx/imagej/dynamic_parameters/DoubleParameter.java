@@ -83,6 +83,27 @@ public class DoubleParameter extends AbstractDParameter<Double> {
      */
     @Override
     public Double getValue() {return M_value;}
+    /** Sets the number in this parameter.
+     * <p>
+     * If the number is outside of the bounds, it is treated as an error.
+     *
+     * @param value The new value.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>.
+     */
+    @Override
+    public void setValue(Double value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        M_value = value;
+        // The value didn't come from the dialog, so the dialog's text doesn't
+        // matter
+        checkForErrors(true);
+        notifyIfChanged();
+    }
     /** Sets the bounds for the value.
      * <p>
      * If the value gets outside of the interval <code>[min, max]</code>, it
@@ -101,9 +122,10 @@ public class DoubleParameter extends AbstractDParameter<Double> {
     {
         M_min = min;
         M_max = max;
+        M_errorCode = -1;
         if (M_number != null) {
             M_number.setBounds(min, max);
-            M_value = M_number.get();
+            if (M_number.valid()) M_value = M_number.get();
         }
         checkForErrors();
     }
@@ -115,7 +137,7 @@ public class DoubleParameter extends AbstractDParameter<Double> {
     {
         M_number = dialog.addDouble(M_label, M_value, M_units, M_decimals);
         M_number.setBounds(M_min, M_max);
-        M_value = M_number.get();
+        if (M_number.valid()) M_value = M_number.get();
         checkForErrors();
     }
     /** Reads this parameter from the dialog.
@@ -123,9 +145,9 @@ public class DoubleParameter extends AbstractDParameter<Double> {
     @Override
     public void readFromDialog()
     {
-        Double value = M_number.get();
-        if (value != null) M_value = M_number.get();
+        if (M_number.valid()) M_value = M_number.get();
         checkForErrors();
+        notifyIfChanged();
     }
     /** Save this parameter to {@link prefs}
      */
@@ -139,35 +161,48 @@ public class DoubleParameter extends AbstractDParameter<Double> {
     {
         M_value = prefs().getDouble(c, name, M_value);
         checkForErrors();
+        notifyIfChanged();
     }
 
+    // The error is stored as one of these codes, and the message is only made
+    // from the code and the bounds when the harvester asks for it.
+    private static final int NO_ERROR = 0;
+    private static final int NOT_A_NUMBER = 1;
+    private static final int OUT_OF_BOUNDS = 2;
     private void checkForErrors()
     {
-        if (M_number != null) {
-            if (M_number.get() == null) {
-                setError(DParameter.displayLabel(M_label) + " is not a number.");
-                return;
-            }
-            if (!M_number.inBounds(M_value)) {
-                boolean greaterThanZero = M_min == Double.MIN_VALUE;
-                boolean lessThanZero = M_max == -Double.MIN_VALUE;
-                boolean negativeInf = M_min == -Double.MAX_VALUE;
-                boolean positiveInf = M_max == Double.MAX_VALUE;
-                if (negativeInf) {
-                    if (lessThanZero) setError(DParameter.displayLabel(M_label) + " must be less than zero.");
-                    else setError(DParameter.displayLabel(M_label) + " must be less than or equal to " + M_max + ".");
-                }
-                else if (positiveInf) {
-                    if (greaterThanZero) setError(DParameter.displayLabel(M_label) + " must be greater than zero.");
-                    else setError(DParameter.displayLabel(M_label) + "must be greater than or equal to " + M_max + ".");
-                }
-                else if (lessThanZero) setError(DParameter.displayLabel(M_label) + " must be in the range [" + M_min + " .. 0).");
-                else if (greaterThanZero) setError(DParameter.displayLabel(M_label) + " must be in the range (0 .. " + M_max + "].");
-                else setError(DParameter.displayLabel(M_label) + " must be in the range [" + M_min + " .. " + M_max + "].");
-                return;
-            }
+        checkForErrors(M_number == null || M_number.valid());
+    }
+    private void checkForErrors(boolean valid)
+    {
+        int code = NO_ERROR;
+        if (!valid) code = NOT_A_NUMBER;
+        else if (!(M_value >= M_min && M_value <= M_max)) code = OUT_OF_BOUNDS;
+        // If the bounds changed, the message needs to be made again even if the
+        // code is the same, so setBounds sets M_errorCode to -1.
+        if (code == M_errorCode) return;
+        M_errorCode = code;
+        if (code == NO_ERROR) setError(null);
+        else setLazyError(M_errorMessage);
+    }
+    private String errorMessage()
+    {
+        if (M_errorCode == NOT_A_NUMBER) return displayLabel() + " is not a number.";
+        boolean greaterThanZero = M_min == Double.MIN_VALUE;
+        boolean lessThanZero = M_max == -Double.MIN_VALUE;
+        boolean negativeInf = M_min == -Double.MAX_VALUE;
+        boolean positiveInf = M_max == Double.MAX_VALUE;
+        if (negativeInf) {
+            if (lessThanZero) return displayLabel() + " must be less than zero.";
+            else return displayLabel() + " must be less than or equal to " + M_max + ".";
+        }
+        else if (positiveInf) {
+            if (greaterThanZero) return displayLabel() + " must be greater than zero.";
+            else return displayLabel() + " must be greater than or equal to " + M_min + ".";
         }
-        setError(null);
+        else if (lessThanZero) return displayLabel() + " must be in the range [" + M_min + " .. 0).";
+        else if (greaterThanZero) return displayLabel() + " must be in the range (0 .. " + M_max + "].";
+        else return displayLabel() + " must be in the range [" + M_min + " .. " + M_max + "].";
     }
 
     private double M_value;
@@ -176,5 +211,7 @@ public class DoubleParameter extends AbstractDParameter<Double> {
     private String M_label;
     private String M_units;
     private int M_decimals;
-    private DPDialog.DialogNumber<Double> M_number;
+    private DPDialog.DialogDouble M_number;
+    private int M_errorCode = NO_ERROR;
+    private Supplier<String> M_errorMessage = this::errorMessage;
 }
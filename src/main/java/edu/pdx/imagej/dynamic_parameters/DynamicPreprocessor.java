@@ -21,11 +21,17 @@ package edu.pdx.imagej.dynamic_parameters;
 
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.WeakHashMap;
+
+import ij.Macro;
+import ij.plugin.frame.Recorder;
 
 import org.scijava.Context;
 import org.scijava.Priority;
 import org.scijava.module.Module;
+import org.scijava.module.ModuleInfo;
 import org.scijava.module.ModuleItem;
+import org.scijava.module.MutableModuleInfo;
 import org.scijava.module.process.AbstractPreprocessorPlugin;
 import org.scijava.module.process.PreprocessorPlugin;
 import org.scijava.plugin.Plugin;
@@ -36,8 +42,20 @@ import org.scijava.plugin.Parameter;
  * <p>
  * It populates any Scijava <a href="https://javadoc.scijava.org/SciJava/org/scijava/plugin/Parameter.html">Parameter</a>
  * that implements the {@link DParameter} interface.  It does this by creating a
- * {@link Harvester} with all of the DParameters that it finds.  Users and
- * programmers shouldn't ever need to use this class directly.
+ * {@link Harvester} with all of the DParameters that it finds.  If the command
+ * is {@link Previewable}, the Harvester will show previews, and if it is a
+ * {@link SnapshotReceiver}, it is given the values it will run with.
+ * <p>
+ * When the command is run from an ImageJ macro, no dialog is shown, and the
+ * parameters get their values from the macro options instead.  When ImageJ's
+ * macro recorder is on, the values chosen on the dialog are recorded so that
+ * the macro can run the command again the same way.
+ * <p>
+ * If whoever runs the command gives it all of its DParameters, already set to
+ * the values they want (for example with {@link DParameter#setValue}), there
+ * is nothing to ask for.  Then no Harvester or dialog is made at all, and the
+ * parameters are only checked for errors.  Users and programmers
+ * shouldn't ever need to use this class directly.
  */
 @Plugin(type = PreprocessorPlugin.class, priority = Priority.LOW)
 public class DynamicPreprocessor extends AbstractPreprocessorPlugin {
@@ -45,10 +63,17 @@ public class DynamicPreprocessor extends AbstractPreprocessorPlugin {
     @Override
     public void process(final Module module)
     {
-        final String title = module.getInfo().getTitle();
-        final Iterable<ModuleItem<?>> inputs = module.getInfo().inputs();
+        final ModuleInfo info = module.getInfo();
+        final String[] names = dynamicInputs(info);
+        // This runs before every command, so commands without any dynamic
+        // parameters should cost as little as possible
+        if (names.length == 0) return;
+        final String title = info.getTitle();
         ArrayList<DParameter> params = new ArrayList<DParameter>();
-        for (final ModuleItem<?> item : inputs) {
+        // Whether every parameter was given by whoever is running the module
+        boolean supplied = true;
+        for (final String name : names) {
+            final ModuleItem<?> item = info.getInput(name);
             Object input = item.getValue(module);
             if (input instanceof DParameter) {
                 DParameter param = (DParameter)input;
@@ -56,19 +81,130 @@ public class DynamicPreprocessor extends AbstractPreprocessorPlugin {
                     cancel(param.getError());
                     return;
                 }
-                P_context.inject(param);
-                param.initialize();
+                // A parameter that was given to the module might already be
+                // set up
+                if (param.getContext() == null) {
+                    P_context.inject(param);
+                    param.initialize();
+                }
+                if (!module.isInputResolved(name)) supplied = false;
                 params.add(param);
-                module.resolveInput(item.getName());
+                module.resolveInput(name);
             }
         }
         if (params.size() > 0) {
-            Harvester h = new Harvester(title, params.toArray(new DParameter[0]));
-            h.populate(module.getDelegateObject().getClass());
+            DParameter<?>[] paramArray = params.toArray(new DParameter[0]);
+            Object command = module.getDelegateObject();
+            if (M_values == null && supplied) {
+                // The parameters already have their values, so they only need
+                // to be checked
+                if (!validate(paramArray)) return;
+            }
+            else if (!harvest(title, command, paramArray)) return;
+            if (command instanceof SnapshotReceiver) {
+                ((SnapshotReceiver)command).receiveSnapshot(
+                    ParameterSnapshot.ofAll(paramArray, null));
+            }
+        }
+    }
+    // The names of the inputs of a module that could hold a DParameter, found
+    // once for each ModuleInfo.  An input is included if its type is a
+    // DParameter, or if it is a type like Object that a DParameter could be
+    // in.  A MutableModuleInfo, like a DynamicCommand's, can gain or lose
+    // inputs at any time, so it is looked at again every time.
+    private static String[] dynamicInputs(ModuleInfo info)
+    {
+        boolean mutable = info instanceof MutableModuleInfo;
+        if (!mutable) {
+            synchronized (S_inputs) {
+                String[] result = S_inputs.get(info);
+                if (result != null) return result;
+            }
+        }
+        ArrayList<String> names = new ArrayList<>();
+        for (ModuleItem<?> item : info.inputs()) {
+            Class<?> type = item.getType();
+            if (DParameter.class.isAssignableFrom(type)
+                    || type.isAssignableFrom(DParameter.class)) {
+                names.add(item.getName());
+            }
+        }
+        String[] result = names.toArray(new String[0]);
+        if (!mutable) {
+            synchronized (S_inputs) {
+                S_inputs.put(info, result);
+            }
+        }
+        return result;
+    }
+    // Gets the values of the parameters from Sweep's values, a macro, or the
+    // dialog.  Returns false if the module was canceled.
+    private boolean harvest(String title, Object command,
+                            DParameter<?>[] paramArray)
+    {
+        Harvester h = new Harvester(title, paramArray);
+        String options = M_values == null ? Macro.getOptions() : null;
+        if (M_values != null || options != null) {
+            try {
+                if (M_values != null) h.populate(command.getClass(), M_values);
+                else h.populateFromMacro(command.getClass(), options);
+            }
+            catch (IllegalArgumentException e) {
+                cancel(e.getMessage());
+                return false;
+            }
+            for (DParameter<?> param : paramArray) {
+                String error = param.getError();
+                if (error != null) {
+                    cancel(error);
+                    return false;
+                }
+            }
+        }
+        else {
+            if (command instanceof Previewable) {
+                h.setPreview((Previewable)command);
+            }
+            h.populate(command.getClass());
             if (h.canceled()) {
                 cancel(null);
+                return false;
             }
+            if (Recorder.record) MacroOptions.record(paramArray);
+        }
+        return true;
+    }
+    // Updates what depends on what and checks for errors without showing
+    // anything.  Returns false if the module was canceled.
+    private boolean validate(DParameter<?>[] paramArray)
+    {
+        new DependencyGraph(paramArray).update();
+        ParameterTree tree = new ParameterTree(paramArray);
+        tree.refreshVisibility();
+        String error = tree.error();
+        tree.detach();
+        if (error != null) {
+            cancel(error);
+            return false;
         }
+        return true;
     }
+    /** Give the parameters fixed values rather than showing a dialog.
+     * <p>
+     * This is used by {@link Sweep} to run commands without any user input.
+     * Any parameter that is not in <code>values</code> uses the value in
+     * prefs.  If any of the parameters has an error afterwards, the module is
+     * canceled with that error.
+     *
+     * @param values The values to give the parameters, keyed by path or label,
+     *               as in {@link Harvester#populate(Class, Map)}.
+     */
+    void setValues(Map<String, ?> values) {M_values = values;}
+
+    private Map<String, ?> M_values;
+    // Only the names of the inputs are kept, because the ModuleItems refer
+    // back to their ModuleInfo, which would keep it from being forgotten
+    private static final Map<ModuleInfo, String[]> S_inputs
+        = new WeakHashMap<>();
     @Parameter private Context P_context;
 }
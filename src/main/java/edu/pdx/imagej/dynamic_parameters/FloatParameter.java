@@ -0,0 +1,219 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.function.Supplier;
+
+import org.scijava.plugin.Plugin;
+
+/** FloatParameter is a {@link DParameter} that holds a single precision
+ * floating point number.  It is the same as {@link DoubleParameter}, except
+ * that the value is stored as a primitive <code>float</code>.
+ * <p>
+ * It also has support for bounds checking using its {@link setBounds}
+ * function.  If the value that the user inputs is outside of this bound, it
+ * will be treated as an error.
+ */
+@Plugin(type = DParameter.class)
+public class FloatParameter extends AbstractDParameter<Float> {
+    /** Construct using a starting value and its label.
+     * <p>
+     * This constructor defaults to having no units and three decimal places.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     */
+    public FloatParameter(float startingValue, String label)
+        {this(startingValue, label, "", 3);}
+    /** Construct using a starting value, its label, and the number of decimal
+     * places allowed.
+     * <p>
+     * This constructor defaults to having no units.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     * @param decimals The number of decimal places allowed for the value.
+     */
+    public FloatParameter(float startingValue, String label, int decimals)
+        {this(startingValue, label, "", decimals);}
+    /** Construct using a starting value, its label, and the units.
+     * <p>
+     * This constructor defaults to having three decimal places.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     * @param units The units to be used for the value.  It is purely aesthetic.
+     */
+    public FloatParameter(float startingValue, String label, String units)
+        {this(startingValue, label, units, 3);}
+    /** Construct using a starting value, a label, units, and the number of
+     * decimal places allowed.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     * @param units The units to be used for the value.  It is purely aesthetic.
+     * @param decimals The number of decimal places allowed for the value.
+     */
+    public FloatParameter(float startingValue, String label, String units, int decimals)
+    {
+        super(label);
+        M_value = startingValue;
+        M_label = label;
+        M_units = units;
+        M_decimals = decimals;
+    }
+    /** Gets the number from this parameter.
+     *
+     * @return The number from this parameter
+     */
+    @Override
+    public Float getValue() {return M_value;}
+    /** Sets the number in this parameter.
+     * <p>
+     * If the number is outside of the bounds, it is treated as an error.
+     *
+     * @param value The new value.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>.
+     */
+    @Override
+    public void setValue(Float value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        M_value = value;
+        // The value didn't come from the dialog, so the dialog's text doesn't
+        // matter
+        checkForErrors(true);
+        notifyIfChanged();
+    }
+    /** Sets the bounds for the value.
+     * <p>
+     * If the value gets outside of the interval <code>[min, max]</code>, it
+     * will be treated as an error.  Here are some examples of intervals and the
+     * call needed to get them:
+     * <ul>
+     *      <li>[2, 4] : <code>setBounds(2.0, 4.0)</code></li>
+     *      <li>[0, ∞) : <code>setBounds(0, Float.MAX_VALUE)</code></li>
+     *      <li>(-∞, 0) : <code>setBounds(-Float.MAX_VALUE, -Float.MIN_VALUE)</code></li>
+     * </ul>
+     *
+     * @param min The minimum value that this parameter should take
+     * @param max The maximum value that this parameter should take
+     */
+    public void setBounds(float min, float max)
+    {
+        M_min = min;
+        M_max = max;
+        M_errorCode = -1;
+        if (M_number != null) {
+            M_number.setBounds(min, max);
+            if (M_number.valid()) M_value = (float)M_number.get();
+        }
+        checkForErrors();
+    }
+
+    /** Adds this parameter to the dialog.
+     */
+    @Override
+    public void addToDialog(DPDialog dialog)
+    {
+        M_number = dialog.addDouble(M_label, M_value, M_units, M_decimals);
+        M_number.setBounds(M_min, M_max);
+        if (M_number.valid()) M_value = (float)M_number.get();
+        checkForErrors();
+    }
+    /** Reads this parameter from the dialog.
+     */
+    @Override
+    public void readFromDialog()
+    {
+        if (M_number.valid()) M_value = (float)M_number.get();
+        checkForErrors();
+        notifyIfChanged();
+    }
+    /** Save this parameter to {@link prefs}
+     */
+    @Override
+    public void saveToPrefs(Class<?> c, String name)
+        {prefs().put(c, name, M_value);}
+    /** Read this parameter from {@link prefs}
+     */
+    @Override
+    public void readFromPrefs(Class<?> c, String name)
+    {
+        M_value = prefs().getFloat(c, name, M_value);
+        checkForErrors();
+        notifyIfChanged();
+    }
+
+    // The error is stored as one of these codes, and the message is only made
+    // from the code and the bounds when the harvester asks for it.
+    private static final int NO_ERROR = 0;
+    private static final int NOT_A_NUMBER = 1;
+    private static final int OUT_OF_BOUNDS = 2;
+    private void checkForErrors()
+    {
+        checkForErrors(M_number == null || M_number.valid());
+    }
+    private void checkForErrors(boolean valid)
+    {
+        int code = NO_ERROR;
+        if (!valid) code = NOT_A_NUMBER;
+        else if (!(M_value >= M_min && M_value <= M_max)) code = OUT_OF_BOUNDS;
+        // If the bounds changed, the message needs to be made again even if the
+        // code is the same, so setBounds sets M_errorCode to -1.
+        if (code == M_errorCode) return;
+        M_errorCode = code;
+        if (code == NO_ERROR) setError(null);
+        else setLazyError(M_errorMessage);
+    }
+    private String errorMessage()
+    {
+        if (M_errorCode == NOT_A_NUMBER) return displayLabel() + " is not a number.";
+        boolean greaterThanZero = M_min == Float.MIN_VALUE;
+        boolean lessThanZero = M_max == -Float.MIN_VALUE;
+        boolean negativeInf = M_min == -Float.MAX_VALUE;
+        boolean positiveInf = M_max == Float.MAX_VALUE;
+        if (negativeInf) {
+            if (lessThanZero) return displayLabel() + " must be less than zero.";
+            else return displayLabel() + " must be less than or equal to " + M_max + ".";
+        }
+        else if (positiveInf) {
+            if (greaterThanZero) return displayLabel() + " must be greater than zero.";
+            else return displayLabel() + " must be greater than or equal to " + M_min + ".";
+        }
+        else if (lessThanZero) return displayLabel() + " must be in the range [" + M_min + " .. 0).";
+        else if (greaterThanZero) return displayLabel() + " must be in the range (0 .. " + M_max + "].";
+        else return displayLabel() + " must be in the range [" + M_min + " .. " + M_max + "].";
+    }
+
+    private float M_value;
+    private float M_min = -Float.MAX_VALUE;
+    private float M_max = Float.MAX_VALUE;
+    private String M_label;
+    private String M_units;
+    private int M_decimals;
+    private DPDialog.DialogDouble M_number;
+    private int M_errorCode = NO_ERROR;
+    private Supplier<String> M_errorMessage = this::errorMessage;
+}
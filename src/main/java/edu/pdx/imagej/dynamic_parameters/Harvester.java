@@ -26,6 +26,10 @@ import java.awt.Font;
 import java.awt.Label;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.Condition;
@@ -54,6 +58,86 @@ public class Harvester extends WindowAdapter {
         for (DParameter param : M_params) {
             param.setHarvester(this);
         }
+        // Both are made again if parameters are added or removed
+        M_tree = new ParameterTree(M_params);
+        graph();
+        for (DParameter<?> param : M_params) {
+            M_byLabel.putIfAbsent(param.label(), param);
+        }
+    }
+    /** Find a parameter by its path.
+     * <p>
+     * The path starts with the label of one of the parameters given to this
+     * Harvester, followed by the labels inside of it separated by periods, the
+     * same as the names used to save to prefs.  See {@link
+     * HoldingParameter#getParameter}.
+     *
+     * @param path The path of the parameter to find.
+     * @return The parameter, or <code>null</code> if there is no parameter
+     *         with that path.
+     */
+    public DParameter<?> getParameter(String path)
+    {
+        return HoldingParameter.find(M_byLabel, path);
+    }
+    /** Get the value of a parameter by its path.
+     *
+     * @param path The path of the parameter, as in {@link getParameter}.
+     * @return The value of the parameter.
+     * @throws IllegalArgumentException If there is no parameter with that
+     *                                  path.
+     */
+    public Object getValue(String path)
+    {
+        DParameter<?> param = getParameter(path);
+        if (param == null) {
+            throw new IllegalArgumentException("There is no parameter \""
+                + path + "\".");
+        }
+        return param.getValue();
+    }
+    /** Turn on preview for the dialog.
+     * <p>
+     * Whenever the parameters change and have no errors,
+     * <code>preview</code> is given a {@link ParameterSnapshot} of the
+     * parameters on a background thread.  See {@link Previewable} for more
+     * details.
+     *
+     * @param preview The preview to run, or <code>null</code> to turn preview
+     *                off.
+     */
+    public void setPreview(Previewable preview)
+    {
+        M_previewer = preview == null ? null : new Previewer(preview);
+    }
+    /** Set the value of a parameter by its path.
+     * <p>
+     * This uses {@link DParameter#setValue}, and then updates everything that
+     * depends on the parameter and refreshes the visibility of all of the
+     * parameters, so that parameters that this shows can be set next.
+     *
+     * @param path The path of the parameter, as in {@link getParameter}.
+     * @param value The new value of the parameter.
+     * @throws IllegalArgumentException If there is no parameter with that
+     *                                  path, or if <code>value</code> has the
+     *                                  wrong type for it.
+     * @throws UnsupportedOperationException If the parameter can't be set.
+     */
+    @SuppressWarnings("unchecked")
+    public void setValue(String path, Object value)
+    {
+        DParameter<Object> param = (DParameter<Object>)getParameter(path);
+        if (param == null) {
+            throw new IllegalArgumentException("There is no parameter \""
+                + path + "\".");
+        }
+        if (value != null && !Overrides.valueType(param).isInstance(value)) {
+            throw new IllegalArgumentException("The value " + value
+                + " has the wrong type for the parameter \"" + path + "\".");
+        }
+        param.setValue(value);
+        graph().update();
+        M_tree.refreshVisibility();
     }
     /** Populate the parameters with preferences
      *
@@ -64,8 +148,9 @@ public class Harvester extends WindowAdapter {
     {
         for (DParameter<?> param : M_params) {
             param.readFromPrefs(c, param.label());
-            param.refreshVisibility();
         }
+        graph().update();
+        M_tree.refreshVisibility();
         populate();
         if (!M_canceled) {
             for (DParameter<?> param : M_params) {
@@ -73,6 +158,179 @@ public class Harvester extends WindowAdapter {
             }
         }
     }
+    /** Populate the parameters with preferences and given values, without
+     * showing a dialog.
+     * <p>
+     * The parameters are first read from prefs.  Then, every parameter given
+     * in <code>values</code> is given its value, as if it had been typed into
+     * the dialog.  Each key is the path of a parameter, as in
+     * {@link getParameter}, or the label of a parameter inside of a
+     * {@link HoldingParameter} on its own if no other parameter has that
+     * label.  A key for a holder like a {@link PluginParameter} gives the
+     * value to its choice, which has the same label.  Nothing is saved to
+     * prefs afterwards.  Check {@link DParameter#getError} to see if the
+     * values were valid.
+     *
+     * @param c The class to read from prefs with.  It is usually the class of
+     *          the command itself.
+     * @param values The values to give the parameters, keyed by path or label.
+     * @throws IllegalArgumentException If a key in <code>values</code> doesn't
+     *                                  match exactly one parameter, if two
+     *                                  keys match the same parameter, or if a
+     *                                  value can't be given to its parameter.
+     */
+    void populate(Class<?> c, Map<String, ?> values)
+    {
+        IdentityHashMap<DParameter<?>, Object> targets
+            = new IdentityHashMap<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            DParameter<?> param = target(entry.getKey());
+            if (targets.containsKey(param)) {
+                throw new IllegalArgumentException("More than one value was "
+                    + "given for " + DParameter.displayLabel(param.label())
+                    + ".");
+            }
+            targets.put(param, entry.getValue());
+        }
+        populateWithoutDialog(c, () -> {
+            for (DParameter<?> param : M_params) {
+                if (param.visible()) addWithValues(param, targets);
+            }
+            for (DParameter<?> param : M_params) {
+                if (param.visible()) param.readFromDialog();
+            }
+        });
+    }
+    /** Populate the parameters with preferences and ImageJ macro options,
+     * without showing a dialog.
+     * <p>
+     * This is used when a command is run from a macro.  The parameters are
+     * first read from prefs, and then every visible parameter is given its
+     * value from <code>options</code>, keyed by its path.  Nothing is saved to
+     * prefs afterwards.  Check {@link DParameter#getError} to see if the
+     * values were valid.
+     *
+     * @param c The class to read from prefs with.  It is usually the class of
+     *          the command itself.
+     * @param options The macro options, as given by
+     *                <code>Macro.getOptions()</code>.
+     * @throws IllegalArgumentException If a number in the options couldn't be
+     *                                  read.
+     */
+    void populateFromMacro(Class<?> c, String options)
+    {
+        populateWithoutDialog(c, () -> MacroOptions.apply(M_params, options));
+    }
+    private DependencyGraph graph()
+    {
+        if (M_graphChanged) {
+            if (M_graph != null) M_graph.detach();
+            M_graphChanged = false;
+            M_graph = new DependencyGraph(M_params, M_graphListener);
+        }
+        return M_graph;
+    }
+    // The parameter that a key given to populate is for
+    private DParameter<?> target(String key)
+    {
+        DParameter<?> result = getParameter(key);
+        if (result == null) {
+            ArrayList<DParameter<?>> matches = new ArrayList<>();
+            for (DParameter<?> param : M_params) addMatches(param, key, matches);
+            if (matches.isEmpty()) {
+                throw new IllegalArgumentException("There is no parameter \""
+                    + key + "\".");
+            }
+            if (matches.size() > 1) {
+                throw new IllegalArgumentException("There is more than one "
+                    + "parameter labeled \"" + key + "\".  Use the path of "
+                    + "the one to give a value to instead.");
+            }
+            result = matches.get(0);
+        }
+        if (result instanceof HoldingParameter) {
+            DParameter<?> choice
+                = ((HoldingParameter<?>)result).getParameter(result.label());
+            if (choice != null) return choice;
+            if (Overrides.flattensDialog(result)) {
+                throw new IllegalArgumentException(
+                    DParameter.displayLabel(result.label())
+                    + " can't be given a value.  Give values to the "
+                    + "parameters inside of it instead.");
+            }
+        }
+        return result;
+    }
+    // Every parameter with the label key in param and the parameters inside
+    // of it, shown or not
+    private static void addMatches(DParameter<?> param, String key,
+                                   ArrayList<DParameter<?>> matches)
+    {
+        if (param.label().equals(key)) matches.add(param);
+        if (param instanceof HoldingParameter) {
+            for (DParameter<?> child
+                    : ((HoldingParameter<?>)param).getAllParams()) {
+                addMatches(child, key, matches);
+            }
+        }
+    }
+    // Puts param on a dialog giving it its value from targets.  Holders that
+    // use HoldingParameter's dialog functions give each parameter inside of
+    // them its own dialog, so that parameters with the same label in
+    // different holders get their own values.
+    private static void addWithValues(DParameter<?> param,
+                                      Map<DParameter<?>, Object> targets)
+    {
+        if (Overrides.flattensDialog(param)) {
+            for (DParameter<?> child
+                    : ((HoldingParameter<?>)param).getAllParams()) {
+                if (child.visible()) addWithValues(child, targets);
+            }
+            return;
+        }
+        HashMap<String, Object> values = new HashMap<>();
+        addValues(param, targets, values);
+        param.addToDialog(new ValueDialog(values));
+    }
+    // The values in targets for param and the parameters inside of it, by
+    // label
+    private static void addValues(DParameter<?> param,
+                                  Map<DParameter<?>, Object> targets,
+                                  HashMap<String, Object> values)
+    {
+        if (targets.containsKey(param)) {
+            values.put(param.label(), targets.get(param));
+        }
+        if (param instanceof HoldingParameter) {
+            for (DParameter<?> child
+                    : ((HoldingParameter<?>)param).getAllParams()) {
+                addValues(child, targets, values);
+            }
+        }
+    }
+    // Reads from prefs and then runs pass until it doesn't change the
+    // visibility of anything
+    private void populateWithoutDialog(Class<?> c, Runnable pass)
+    {
+        for (DParameter<?> param : M_params) {
+            param.readFromPrefs(c, param.label());
+        }
+        graph().update();
+        M_tree.refreshVisibility();
+        // Giving a value to something like a PluginParameter can show new
+        // parameters, which need their values too.  This keeps going until
+        // nothing new is shown, just like the dialog being recreated.
+        boolean visibilityChanged = true;
+        while (visibilityChanged) {
+            visibilityChanged = false;
+            pass.run();
+            graph().update();
+            if (M_tree.visibilityChanged()) {
+                visibilityChanged = true;
+                M_tree.refreshVisibility();
+            }
+        }
+    }
     /** Populate the parameters without preferences */
     // This populates the parameters without reading from any prefs
     public void populate()
@@ -92,20 +350,39 @@ public class Harvester extends WindowAdapter {
             }
         }
         if (M_dialog.wasCanceled()) M_canceled = true;
+        if (M_previewer != null) M_previewer.shutdown();
     }
     private void createDialog()
     {
         M_dialog = new HarvesterDialog(M_name);
-        for (DParameter param : M_params) {
-            if (param.visible()) {
-                param.addToDialog(M_dialog);
-            }
+        M_dialogHolders.clear();
+        for (DParameter<?> param : M_params) {
+            if (param.visible()) addToDialog(param, null);
         }
+        M_dialog.setOwner(null);
         // This message is the error/warning
         // Note that it does NOT get filled in right away
         M_errorLabel = M_dialog.addMessage("", Color.RED);
         M_dialog.setHarvester(this);
     }
+    // Adds param to the dialog so that the dialog knows which parameter each
+    // input belongs to.  Holders that use HoldingParameter's addToDialog are
+    // gone through here instead, so that their inputs belong to the
+    // parameters inside of them.
+    private void addToDialog(DParameter<?> param, HoldingParameter<?> holder)
+    {
+        if (holder != null) M_dialogHolders.put(param, holder);
+        if (Overrides.flattensDialog(param)) {
+            HoldingParameter<?> inner = (HoldingParameter<?>)param;
+            for (DParameter<?> child : inner.getAllParams()) {
+                if (child.visible()) addToDialog(child, inner);
+            }
+        }
+        else {
+            M_dialog.setOwner(param);
+            param.addToDialog(M_dialog);
+        }
+    }
     /** Calculate anything needed when the window is opened. */
     @Override
     public void windowOpened(WindowEvent e)
@@ -115,7 +392,7 @@ public class Harvester extends WindowAdapter {
         // it needs to be shown instantly, though.  This function gets the width
         // between the creation of the window and setting of the error.
         M_dialogWidth = M_dialog.width();
-        checkForErrors();
+        if (checkForErrors()) preview();
     }
     /** React to user input.  This recreates the dialog if it is needed.
      *
@@ -132,12 +409,27 @@ public class Harvester extends WindowAdapter {
         // closing.  We don't want to have anything to do with it in that case.
         if (dialog == M_dialog) {
             boolean reconstructionNeeded = false;
-            for (DParameter param : M_params) {
-                param.readFromDialog();
-                if (param.visibilityChanged()) {
-                    reconstructionNeeded = true;
-                    param.refreshVisibility();
+            DParameter<?> changed = dialog.owner(e);
+            if (changed == null) {
+                for (DParameter<?> param : M_params) param.readFromDialog();
+                graph().update();
+            }
+            else {
+                // Only the parameter that changed is read, and then the
+                // holders it is in are told, as their readFromDialog would
+                changed.readFromDialog();
+                for (HoldingParameter<?> holder = M_dialogHolders.get(changed);
+                     holder != null; holder = M_dialogHolders.get(holder)) {
+                    holder.notifyIfChanged();
                 }
+                // Only the parameters depending on what changed are updated
+                graph().update(changed);
+            }
+            if (M_tree.visibilityChanged()) {
+                reconstructionNeeded = true;
+                M_tree.refreshVisibility();
+            }
+            for (DParameter param : M_params) {
                 if (param.reconstructionNeeded()) {
                     reconstructionNeeded = true;
                 }
@@ -162,7 +454,11 @@ public class Harvester extends WindowAdapter {
                 return false;
             }
             // if (!reconstructionNeeded)
-            else return checkForErrors();
+            else if (checkForErrors()) {
+                preview();
+                return true;
+            }
+            else return false;
         }
         // if (dialog != M_dialog)
         else return false;
@@ -178,30 +474,25 @@ public class Harvester extends WindowAdapter {
      */
     public boolean checkForErrors()
     {
-        String error = null;
         // Check error
-        for (DParameter param : M_params) {
-            error = param.getError();
-            if (error != null) {
-                M_dialog.setEnabled(false);
-                M_errorLabel.setText(error);
-                M_errorWidth = M_dialog.stringWidth(error) + 64;
-                resize();
-                return false;
-            }
+        String error = M_tree.error();
+        if (error != null) {
+            M_dialog.setEnabled(false);
+            M_errorLabel.setText(error);
+            M_errorWidth = M_dialog.stringWidth(error) + 64;
+            resize();
+            return false;
         }
         // There is no error, we can push OK (this must be here because warnings
         // need to return before the end of the function)
         M_dialog.setEnabled(true);
         // Check warning
-        for (DParameter param : M_params) {
-            error = param.getWarning();
-            if (error != null) {
-                M_errorLabel.setText(error);
-                M_errorWidth = M_dialog.stringWidth(error) + 64;
-                resize();
-                return true;
-            }
+        error = M_tree.warning();
+        if (error != null) {
+            M_errorLabel.setText(error);
+            M_errorWidth = M_dialog.stringWidth(error) + 64;
+            resize();
+            return true;
         }
         // There are no errors or warnings
         M_errorLabel.setText(null);
@@ -209,23 +500,39 @@ public class Harvester extends WindowAdapter {
         resize();
         return true;
     }
+    private void preview()
+    {
+        if (M_previewer == null) return;
+        M_snapshot = ParameterSnapshot.ofAll(M_params, M_snapshot);
+        M_previewer.submit(M_snapshot);
+    }
     private void resize()
     {
         int width = M_dialogWidth > M_errorWidth ? M_dialogWidth : M_errorWidth;
-        for (DParameter param : M_params) {
-            int paramWidth = param.width();
-            width = width > paramWidth ? width : paramWidth;
-        }
+        int paramWidth = M_tree.width();
+        width = width > paramWidth ? width : paramWidth;
         M_dialog.setWidth(width);
     }
     private String M_name;
     private DParameter<?>[] M_params;
+    private HashMap<String, DParameter<?>> M_byLabel = new HashMap<>();
+    // null when it needs to be made again
+    // The holder that each parameter on the dialog was gone through in
+    private IdentityHashMap<DParameter<?>, HoldingParameter<?>> M_dialogHolders
+        = new IdentityHashMap<>();
+    private DependencyGraph M_graph;
+    private boolean M_graphChanged = true;
+    private final Runnable M_graphListener = () -> M_graphChanged = true;
+    private ParameterTree M_tree;
 
     private HarvesterDialog M_dialog;
     private Label M_errorLabel;
     private int M_dialogWidth;
     private int M_errorWidth;
 
+    private Previewer M_previewer;
+    private ParameterSnapshot M_snapshot;
+
     private Lock M_finishedLock = new ReentrantLock();
     private Condition M_finishedCondition = M_finishedLock.newCondition();
     private boolean M_finished = false;
@@ -25,6 +25,9 @@ import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.event.*;
+import java.util.EventObject;
+import java.util.IdentityHashMap;
+import java.util.WeakHashMap;
 import java.util.function.Supplier;
 import java.text.ParsePosition;
 import java.text.DecimalFormat;
@@ -86,6 +89,26 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
     {
         M_gd.removeWindowListener(harvester);
     }
+    // Everything added to the dialog after this belongs to param, until this
+    // is called again
+    void setOwner(DParameter<?> param) {M_owner = param;}
+    // The parameter whose input made an event, or null if it isn't known
+    DParameter<?> owner(Object event)
+    {
+        Object source = null;
+        if (event instanceof DocumentEvent) {
+            source = ((DocumentEvent)event).getDocument();
+        }
+        else if (event instanceof EventObject) {
+            source = ((EventObject)event).getSource();
+        }
+        // Radio buttons belong to their group
+        if (source instanceof Checkbox
+                && ((Checkbox)source).getCheckboxGroup() != null) {
+            source = ((Checkbox)source).getCheckboxGroup();
+        }
+        return source == null ? null : M_owners.get(source);
+    }
     @Override
     public boolean dialogItemChanged(GenericDialog gd, AWTEvent e)
     {
@@ -94,6 +117,7 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
     @Override
     public void stateChanged(ChangeEvent e)
     {
+        if (M_ignoreChanges) return;
         setEnabled(M_harvester.dialogItemChanged(this, e));
     }
     @Override
@@ -110,6 +134,7 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         ++gridy;
         M_gd.addCheckbox(label, defaultValue);
         Checkbox lastCheckbox = (Checkbox)M_gd.getCheckboxes().lastElement();
+        own(lastCheckbox);
         return () -> lastCheckbox.getState();
     }
     /** {@inheritDoc} */
@@ -119,6 +144,7 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         ++gridy;
         M_gd.addChoice(label, choices, defaultValue);
         Choice lastChoice = (Choice)M_gd.getChoices().lastElement();
+        own(lastChoice);
         return () -> lastChoice.getSelectedItem();
     }
     /** {@inheritDoc} */
@@ -128,11 +154,59 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         ++gridy;
         M_gd.addChoice(label, choices, defaultValue);
         Choice lastChoice = (Choice)M_gd.getChoices().lastElement();
+        own(lastChoice);
         return () -> lastChoice.getSelectedIndex();
     }
+    /** {@inheritDoc}
+     * <p>
+     * This uses a text field to type in and a list showing the choices that
+     * start with what was typed.  The list is backed by a {@link PrefixIndex},
+     * so only the rows that are actually on the screen are ever looked at.
+     * The choices are only sorted the first time an array is given, so the
+     * array shouldn't be changed after that.
+     */
+    @Override
+    public Supplier<String> addSearchableChoice(String label,
+                                                 String defaultValue,
+                                                 String[] choices)
+    {
+        PrefixIndex index = prefixes(choices);
+        PrefixListModel model = new PrefixListModel(index);
+        JList<String> list = new JList<>(model);
+        own(list);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setVisibleRowCount(6);
+        // Without these, JList measures every single item
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 2);
+        list.setFixedCellWidth(180);
+        JTextField search = new JTextField(defaultValue, 15);
+        String[] value = new String[]{defaultValue};
+        search.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) {update();}
+            @Override public void removeUpdate(DocumentEvent e) {update();}
+            @Override public void changedUpdate(DocumentEvent e) {update();}
+            private void update() {model.setPrefix(search.getText());}
+        });
+        list.addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting()) return;
+            String selected = list.getSelectedValue();
+            if (selected == null || selected.equals(value[0])) return;
+            value[0] = selected;
+            setEnabled(M_harvester.dialogItemChanged(this, e));
+        });
+        model.setPrefix(defaultValue);
+        if (model.getSize() > 0) list.setSelectedIndex(0);
+
+        Panel panel = new Panel();
+        panel.setLayout(new BorderLayout());
+        panel.add(search, BorderLayout.NORTH);
+        panel.add(new JScrollPane(list), BorderLayout.CENTER);
+        addFakeComponent(label, panel);
+        return () -> value[0];
+    }
     /** {@inheritDoc} */
     @Override
-    public DialogNumber<Double> addDouble(String label, double defaultValue, String units, int decimals)
+    public DialogDouble addDouble(String label, double defaultValue, String units, int decimals)
     {
         double stepSize = Math.pow(10, -decimals);
         SpinnerNumberModel model = new SpinnerNumberModel(defaultValue,
@@ -141,11 +215,11 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
                                                           stepSize);
         JSpinner spinner = new JSpinner(model);
         addFakeNumber(label, spinner, units);
-        return new DialogDouble(spinner, model, stepSize);
+        return new DoubleNumber(spinner, model);
     }
     /** {@inheritDoc} */
     @Override
-    public DialogNumber<Integer> addInteger(String label, int defaultValue, String units)
+    public DialogInteger addInteger(String label, int defaultValue, String units)
     {
         SpinnerNumberModel model = new SpinnerNumberModel(defaultValue,
                                                           Integer.MIN_VALUE,
@@ -153,7 +227,19 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
                                                           1);
         JSpinner spinner = new JSpinner(model);
         addFakeNumber(label, spinner, units);
-        return new DialogInt(spinner, model, 1);
+        return new IntegerNumber(spinner, model);
+    }
+    /** {@inheritDoc} */
+    @Override
+    public DialogLong addLong(String label, long defaultValue, String units)
+    {
+        SpinnerNumberModel model = new SpinnerNumberModel(Long.valueOf(defaultValue),
+                                                          Long.valueOf(Long.MIN_VALUE),
+                                                          Long.valueOf(Long.MAX_VALUE),
+                                                          Long.valueOf(1L));
+        JSpinner spinner = new JSpinner(model);
+        addFakeNumber(label, spinner, units);
+        return new LongNumber(spinner, model);
     }
     /** {@inheritDoc} */
     @Override
@@ -169,6 +255,7 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         gridy += 2;
         M_gd.addRadioButtonGroup(label, choices, rows, columns, defaultValue);
         CheckboxGroup radio = (CheckboxGroup)M_gd.getRadioButtonGroups().lastElement();
+        own(radio);
         return () -> radio.getSelectedCheckbox().getLabel();
     }
     /** {@inheritDoc} */
@@ -178,6 +265,7 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         ++gridy;
         M_gd.addStringField(label, defaultValue);
         TextField text = (TextField)M_gd.getStringFields().lastElement();
+        own(text);
         text.addFocusListener(this);
         return () -> text.getText();
     }
@@ -204,7 +292,21 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         spinner.setPreferredSize(new Dimension(200, spinner.getPreferredSize().height));
         JSpinner.DefaultEditor editor = (JSpinner.DefaultEditor)spinner.getEditor();
         JTextField textField = editor.getTextField();
+        own(spinner);
+        own(textField.getDocument());
         spinner.addChangeListener(this);
+        Panel panel = new Panel();
+        panel.setLayout(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        panel.add(spinner);
+        panel.add(new Label(" " + units));
+        addFakeComponent(label, panel);
+    }
+    private void own(Object source)
+    {
+        if (M_owner != null) M_owners.put(source, M_owner);
+    }
+    private void addFakeComponent(String label, Component component)
+    {
         ++gridy;
         GridBagConstraints c = new GridBagConstraints();
         c.insets = new Insets(5, 0, 3, 0);
@@ -214,43 +316,87 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         M_gd.add(new Label(DParameter.displayLabel(label)), c);
         c.gridx = GridBagConstraints.RELATIVE;
         c.anchor = GridBagConstraints.WEST;
-        Panel panel = new Panel();
-        panel.setLayout(new FlowLayout(FlowLayout.LEFT, 0, 0));
-        panel.add(spinner);
-        panel.add(new Label(" " + units));
-        M_gd.add(panel, c);
+        M_gd.add(component, c);
         M_gd.addMessage("");
     }
 
+    // The choices are sorted once for each array of choices, so that they
+    // don't need to be sorted again every time the dialog is made
+    static PrefixIndex prefixes(String[] choices)
+    {
+        synchronized (S_prefixes) {
+            return S_prefixes.computeIfAbsent(choices, PrefixIndex::new);
+        }
+    }
+
+    // Arrays are compared by identity, and PrefixIndex copies the array it is
+    // given, so an entry goes away with its array
+    private static final WeakHashMap<String[], PrefixIndex> S_prefixes
+        = new WeakHashMap<>();
+
     private GenericDialog M_gd;
     private Harvester M_harvester;
     private int gridy;
+    private boolean M_ignoreChanges = false;
+    private DParameter<?> M_owner;
+    // The parameter that each input belongs to, by what makes its events
+    private IdentityHashMap<Object, DParameter<?>> M_owners
+        = new IdentityHashMap<>();
+
+    // A list model showing the part of a PrefixIndex that starts with a prefix
+    private static class PrefixListModel extends AbstractListModel<String> {
+        public PrefixListModel(PrefixIndex index) {M_index = index;}
+        public void setPrefix(String prefix)
+        {
+            int oldSize = getSize();
+            M_start = M_index.start(prefix);
+            M_end = Math.max(M_start, M_index.end(prefix));
+            int newSize = getSize();
+            if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+            if (newSize > 0) fireIntervalAdded(this, 0, newSize - 1);
+        }
+        @Override public int getSize() {return M_end - M_start;}
+        @Override public String getElementAt(int i) {return M_index.get(M_start + i);}
 
-    private abstract class DialogNum<T extends Number & Comparable<T>> implements DialogNumber<T>, DocumentListener, FocusListener {
-        public DialogNum(JSpinner spinner, SpinnerNumberModel model, T stepSize)
+        private PrefixIndex M_index;
+        private int M_start;
+        private int M_end;
+    }
+
+    // The common parts of DoubleNumber and IntegerNumber.  The text is only
+    // parsed once after each change, in parse(), and the subclasses cache the
+    // result in primitive fields.
+    private abstract class DialogNum implements DocumentListener, FocusListener {
+        public DialogNum(JSpinner spinner, SpinnerNumberModel model)
         {
             M_spinner = spinner;
             M_model = model;
             M_editor = (JSpinner.NumberEditor)M_spinner.getEditor();
-            M_stepSize = stepSize;
             listen();
         }
-        @Override
-        public T get()
+        public boolean valid()
         {
-            String text = getTextField().getText();
-            return parse(text);
+            update();
+            return M_valid;
         }
-        @Override
-        public void setBounds(T min, T max)
+        // The bounds are changed on the existing model, so the editor and all
+        // of the listeners stay the same.  The spinner's change events are
+        // ignored while doing this, because this is usually called while
+        // reacting to a change already.
+        protected void applyBounds(Comparable<?> min, Comparable<?> max,
+                                   boolean valueInBounds)
         {
-            T value = get();
-            if (value == null) return;
-            M_model = new SpinnerNumberModel(min, min, max, M_stepSize);
-            if (inBounds(value)) M_model.setValue(value);
-            M_spinner.setModel(M_model);
-            M_editor = (JSpinner.NumberEditor)M_spinner.getEditor();
-            listen();
+            M_ignoreChanges = true;
+            try {
+                M_model.setMinimum(min);
+                M_model.setMaximum(max);
+                // If the text isn't valid, leave it alone so the user can fix
+                // it.  Otherwise, move the value into the bounds.
+                if (valid() && !valueInBounds) M_model.setValue(min);
+            }
+            finally {
+                M_ignoreChanges = false;
+            }
         }
         @Override
         public void focusGained(FocusEvent e)
@@ -264,8 +410,25 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
         @Override public void removeUpdate(DocumentEvent ev) {documentChanged(ev);}
         @Override public void changedUpdate(DocumentEvent ev) {documentChanged(ev);}
 
+        protected void update()
+        {
+            if (M_dirty) {
+                M_dirty = false;
+                String text = getTextField().getText();
+                ParsePosition pos = new ParsePosition(0);
+                Number result = M_editor.getFormat().parse(text, pos);
+                M_valid = pos.getIndex() != 0 && pos.getIndex() == text.length()
+                          && store(result);
+            }
+        }
+        // Returns whether the value could be stored exactly
+        abstract protected boolean store(Number value);
+        abstract protected Number currentValue();
+
         private void documentChanged(DocumentEvent ev)
         {
+            M_dirty = true;
+            if (M_ignoreChanges) return;
             // Because DocumentListeners may get multiple events at one time, we
             // need a way to only check once no matter how many events we get at
             // one time.  Using invokeLater and M_changed allows us to to that.
@@ -290,52 +453,116 @@ class HarvesterDialog implements DPDialog, DialogListener, ChangeListener, Focus
             JSpinner.DefaultEditor editor = (JSpinner.DefaultEditor)M_spinner.getEditor();
             return editor.getTextField();
         }
-        abstract protected T parse(String text);
 
         private JSpinner M_spinner;
         protected SpinnerNumberModel M_model;
         protected JSpinner.NumberEditor M_editor;
-        private T M_stepSize;
         private boolean M_changed = false;
+        private boolean M_dirty = true;
+        private boolean M_valid = false;
+    }
+    private class DoubleNumber extends DialogNum implements DialogDouble {
+        public DoubleNumber(JSpinner spinner, SpinnerNumberModel model)
+        {super(spinner, model);}
+        @Override
+        public double get()
+        {
+            update();
+            return M_value;
+        }
+        @Override
+        public boolean inBounds(double value)
+        {
+            return value >= M_min && value <= M_max;
+        }
+        @Override
+        public void setBounds(double min, double max)
+        {
+            M_min = min;
+            M_max = max;
+            applyBounds(min, max, valid() && inBounds(get()));
+        }
+        @Override protected boolean store(Number value)
+        {
+            M_value = value.doubleValue();
+            return true;
+        }
+        @Override protected Number currentValue() {return M_value;}
+
+        private double M_value;
+        private double M_min = -Double.MAX_VALUE;
+        private double M_max = Double.MAX_VALUE;
     }
-    private class DialogDouble extends DialogNum<Double> {
-        public DialogDouble(JSpinner spinner, SpinnerNumberModel model, Double stepSize)
-        {super(spinner, model, stepSize);}
+    private class IntegerNumber extends DialogNum implements DialogInteger {
+        public IntegerNumber(JSpinner spinner, SpinnerNumberModel model)
+        {super(spinner, model);}
+        @Override
+        public int get()
+        {
+            update();
+            return M_value;
+        }
         @Override
-        public boolean inBounds(Double value)
+        public boolean inBounds(int value)
         {
-            return (value.compareTo((Double)M_model.getMinimum()) >= 0 &&
-                    value.compareTo((Double)M_model.getMaximum()) <= 0);
+            return value >= M_min && value <= M_max;
         }
         @Override
-        protected Double parse(String text)
+        public void setBounds(int min, int max)
         {
-            DecimalFormat format = M_editor.getFormat();
-            ParsePosition pos = new ParsePosition(0);
-            Number result = format.parse(text, pos);
-            if (pos.getIndex() == 0) return null;
-            else if (pos.getIndex() != text.length()) return null;
-            else return result.doubleValue();
+            M_min = min;
+            M_max = max;
+            applyBounds(min, max, valid() && inBounds(get()));
         }
+        @Override protected boolean store(Number value)
+        {
+            // The format gives a Long for whole numbers that fit, and a Double
+            // otherwise
+            if (!(value instanceof Long)) return false;
+            long result = value.longValue();
+            if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+                return false;
+            }
+            M_value = (int)result;
+            return true;
+        }
+        @Override protected Number currentValue() {return M_value;}
+
+        private int M_value;
+        private int M_min = Integer.MIN_VALUE;
+        private int M_max = Integer.MAX_VALUE;
     }
-    private class DialogInt extends DialogNum<Integer> {
-        public DialogInt(JSpinner spinner, SpinnerNumberModel model, Integer stepSize)
-        {super(spinner, model, stepSize);}
+    private class LongNumber extends DialogNum implements DialogLong {
+        public LongNumber(JSpinner spinner, SpinnerNumberModel model)
+        {super(spinner, model);}
         @Override
-        public boolean inBounds(Integer value)
+        public long get()
         {
-            return (value.compareTo((Integer)M_model.getMinimum()) >= 0 &&
-                    value.compareTo((Integer)M_model.getMaximum()) <= 0);
+            update();
+            return M_value;
         }
         @Override
-        protected Integer parse(String text)
+        public boolean inBounds(long value)
         {
-            DecimalFormat format = M_editor.getFormat();
-            ParsePosition pos = new ParsePosition(0);
-            Number result = format.parse(text, pos);
-            if (pos.getIndex() == 0) return null;
-            else if (pos.getIndex() != text.length()) return null;
-            else return result.intValue();
+            return value >= M_min && value <= M_max;
         }
+        @Override
+        public void setBounds(long min, long max)
+        {
+            M_min = min;
+            M_max = max;
+            applyBounds(min, max, valid() && inBounds(get()));
+        }
+        @Override protected boolean store(Number value)
+        {
+            if (!(value instanceof Long)) return false;
+            M_value = value.longValue();
+            return true;
+        }
+        @Override protected Number currentValue() {return M_value;}
+
+        private long M_value;
+        private long M_min = Long.MIN_VALUE;
+        private long M_max = Long.MAX_VALUE;
     }
 }
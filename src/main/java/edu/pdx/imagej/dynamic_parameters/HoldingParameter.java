@@ -20,6 +20,8 @@
 package edu.pdx.imagej.dynamic_parameters;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
@@ -75,6 +77,24 @@ public abstract class HoldingParameter<T> extends AbstractDParameter<T> {
                 param.readFromDialog();
             }
         }
+        notifyIfChanged();
+    }
+    /** {@inheritDoc}
+     * <p>
+     * A holder's value is usually made from its parameters' values, often as
+     * a new object each time, so this compares the parameters' own keys
+     * instead.  Override this if the value depends on anything else.
+     */
+    @Override protected Object changeKey()
+    {
+        Object[] result = new Object[M_params.size()];
+        for (int i = 0; i < result.length; ++i) {
+            DParameter<?> param = M_params.get(i);
+            result[i] = param instanceof AbstractDParameter
+                        ? ((AbstractDParameter<?>)param).changeKey()
+                        : param.getValue();
+        }
+        return result;
     }
     /**
      * Save the values of this parameter to the preferences.
@@ -97,16 +117,22 @@ public abstract class HoldingParameter<T> extends AbstractDParameter<T> {
         for (DParameter<?> param : M_params) {
             param.readFromPrefs(c, name + "." + param.label());
         }
+        notifyIfChanged();
     }
     /**
      * {@inheritDoc}
      * <p>
      * This returns <code>true</code> if any of the contained parameter's
-     * visibility has changed.
+     * visibility has changed.  The contained parameters tell this one when
+     * their visibility changes, so this doesn't need to look at all of them.
+     * The only exception is parameters that don't extend AbstractDParameter or
+     * that override the visibility functions, which are checked each time, and
+     * so are HoldingParameters that have any of those inside of them.
      */
     @Override public boolean visibilityChanged()
     {
-        for (DParameter<?> param : M_params) {
+        if (M_changedCount != 0) return true;
+        for (DParameter<?> param : M_untracked) {
             if (param.visibilityChanged()) return true;
         }
         return super.visibilityChanged();
@@ -172,15 +198,11 @@ public abstract class HoldingParameter<T> extends AbstractDParameter<T> {
     }
     /** Check if something went wrong during initialization.
      * <p>
-     * This returns true if any contained parameter is invalid.
+     * This returns true if any contained parameter is invalid.  Because this
+     * is about initialization, each parameter is only checked when it is
+     * added.
      */
-    @Override public boolean invalid()
-    {
-        for (DParameter<?> param : M_params) {
-            if (param.invalid()) return true;
-        }
-        return false;
-    }
+    @Override public boolean invalid() {return M_invalidCount != 0;}
     /** Set the Harvester for all contained parameters. */
     @Override public void setHarvester(Harvester h)
     {
@@ -213,6 +235,9 @@ public abstract class HoldingParameter<T> extends AbstractDParameter<T> {
             param.initialize();
         }
         M_params.add(param);
+        M_byLabel.putIfAbsent(param.label(), param);
+        count(param, 1);
+        structureChanged();
         return param;
     }
     /** Remove a parameter by value.
@@ -221,17 +246,58 @@ public abstract class HoldingParameter<T> extends AbstractDParameter<T> {
      * @return <code>true</code> if the parameter was successfully removed.
      */
     protected boolean removeParameter(DParameter<?> param)
-        {return M_params.remove(param);}
+    {
+        boolean result = M_params.remove(param);
+        if (result) {
+            forget(param);
+            count(param, -1);
+        }
+        structureChanged();
+        return result;
+    }
     /** Remove a parameter by index.
      *
      * @param index The index of the parameter to remove.
      * @return The parameter that was removed.
      */
     protected DParameter<?> removeParameter(int index)
-        {return M_params.remove(index);}
+    {
+        DParameter<?> result = M_params.remove(index);
+        forget(result);
+        count(result, -1);
+        structureChanged();
+        return result;
+    }
     /** Remove all parameters. */
     protected void clearParameters()
-        {M_params.clear();}
+    {
+        for (int i = M_params.size() - 1; i >= 0; --i) {
+            count(M_params.remove(i), -1);
+        }
+        M_byLabel.clear();
+        structureChanged();
+    }
+    /** Find a parameter inside of this one by its path.
+     * <p>
+     * The path is the labels of the parameters leading to the one you want,
+     * separated by periods, starting with a parameter directly inside this
+     * one.  For example, <code>"Group.Value"</code> is the parameter labeled
+     * <code>"Value"</code> inside of the HoldingParameter labeled
+     * <code>"Group"</code> inside of this one.  These are the same names used
+     * when saving to prefs.  If more than one parameter has the same label,
+     * the first one added is found.
+     * <p>
+     * Each HoldingParameter keeps a map of its parameters by label, so this
+     * only takes one lookup for each part of the path.
+     *
+     * @param path The path of the parameter to find.
+     * @return The parameter, or <code>null</code> if there is no parameter
+     *         with that path.
+     */
+    public DParameter<?> getParameter(String path)
+    {
+        return find(M_byLabel, path);
+    }
     /** Get all of the plugins that are in this plugin.
      *
      * @return An Iterable that iterates through all of the plugins.
@@ -240,5 +306,133 @@ public abstract class HoldingParameter<T> extends AbstractDParameter<T> {
     {
         return M_params;
     }
+
+    // Used by ParameterTree and DependencyGraph to know when they need to
+    // look at this again.  Adding a listener that is already here does
+    // nothing.
+    void addStructureListener(Runnable listener)
+    {
+        if (!M_structureListeners.contains(listener)) {
+            M_structureListeners.add(listener);
+        }
+    }
+    void removeStructureListener(Runnable listener)
+        {M_structureListeners.remove(listener);}
+    private void structureChanged()
+    {
+        // A listener can remove itself while this is going through them
+        for (Runnable listener
+                : M_structureListeners.toArray(new Runnable[0])) {
+            listener.run();
+        }
+    }
+
+    // Finds a path starting with one of the parameters in byLabel.  Labels can
+    // have periods in them too, so every period is tried as the end of the
+    // first label.
+    static DParameter<?> find(Map<String, ? extends DParameter<?>> byLabel,
+                              String path)
+    {
+        DParameter<?> whole = byLabel.get(path);
+        if (whole != null) return whole;
+        int dot = path.indexOf('.');
+        while (dot != -1) {
+            DParameter<?> first = byLabel.get(path.substring(0, dot));
+            if (first instanceof HoldingParameter) {
+                DParameter<?> result = ((HoldingParameter<?>)first)
+                    .getParameter(path.substring(dot + 1));
+                if (result != null) return result;
+            }
+            dot = path.indexOf('.', dot + 1);
+        }
+        return null;
+    }
+    // Removes a parameter from M_byLabel, replacing it with the next parameter
+    // with the same label if there is one
+    private void forget(DParameter<?> param)
+    {
+        String label = param.label();
+        if (M_byLabel.get(label) != param) return;
+        M_byLabel.remove(label);
+        for (DParameter<?> other : M_params) {
+            if (other.label().equals(label)) {
+                M_byLabel.put(label, other);
+                break;
+            }
+        }
+    }
+
+    // Called by a contained parameter when its visibilityChanged() changes
+    void childVisibilityChanged(boolean changed)
+    {
+        boolean before = visibilityChanged();
+        M_changedCount += changed ? 1 : -1;
+        tellParent(before);
+    }
+    // Called by a contained HoldingParameter when it gets its first parameter
+    // that can't tell it when its visibility changes, or loses its last one.
+    // Until it loses it, this has to ask it every time too.
+    void childTrackingChanged(HoldingParameter<?> child, boolean untracked,
+                              boolean changedBefore)
+    {
+        boolean before = visibilityChanged();
+        boolean wasUntracked = !reportsVisibility();
+        if (untracked) {
+            if (changedBefore) --M_changedCount;
+            M_untracked.add(child);
+        }
+        else {
+            M_untracked.remove(child);
+            if (child.visibilityChanged()) ++M_changedCount;
+        }
+        tellParent(before, wasUntracked);
+    }
+    @Override boolean reportsVisibility() {return M_untracked.isEmpty();}
+    // Called by a contained HoldingParameter when its invalid() changes
+    void childInvalidChanged(boolean invalid)
+    {
+        boolean before = invalid();
+        M_invalidCount += invalid ? 1 : -1;
+        if (M_parent != null && invalid() != before) {
+            M_parent.childInvalidChanged(!before);
+        }
+    }
+    // Adds (if sign is 1) or removes (if sign is -1) a parameter from the
+    // counts
+    private void count(DParameter<?> param, int sign)
+    {
+        boolean before = visibilityChanged();
+        boolean beforeInvalid = invalid();
+        boolean wasUntracked = !reportsVisibility();
+        if (Overrides.tracksVisibility(param)
+                && ((AbstractDParameter<?>)param).reportsVisibility()) {
+            if (param.visibilityChanged()) M_changedCount += sign;
+        }
+        else if (sign == 1) M_untracked.add(param);
+        else M_untracked.remove(param);
+        if (Overrides.tracksVisibility(param)) {
+            ((AbstractDParameter<?>)param).M_parent = sign == 1 ? this : null;
+        }
+        if (param.invalid()) M_invalidCount += sign;
+        tellParent(before, wasUntracked);
+        if (M_parent != null && invalid() != beforeInvalid) {
+            M_parent.childInvalidChanged(!beforeInvalid);
+        }
+    }
+    // Tells the parent what changed, given what visibilityChanged() and
+    // reportsVisibility() were before
+    private void tellParent(boolean before, boolean wasUntracked)
+    {
+        boolean untracked = !reportsVisibility();
+        if (M_parent == null || untracked == wasUntracked) tellParent(before);
+        else M_parent.childTrackingChanged(this, untracked, before);
+    }
+
     private ArrayList<DParameter<?>> M_params = new ArrayList<DParameter<?>>();
+    private HashMap<String, DParameter<?>> M_byLabel = new HashMap<>();
+    // Parameters that can't tell this when their visibility changes
+    private ArrayList<DParameter<?>> M_untracked = new ArrayList<>();
+    private int M_changedCount = 0;
+    private int M_invalidCount = 0;
+    private ArrayList<Runnable> M_structureListeners = new ArrayList<>();
 }
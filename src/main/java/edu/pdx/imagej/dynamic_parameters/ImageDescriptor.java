@@ -0,0 +1,208 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import ij.ImagePlus;
+import ij.measure.Calibration;
+
+/** ImageDescriptor holds the metadata of an ImagePlus that is cheap to look
+ * at, such as its type, dimensions, and calibration.  It is mainly used to
+ * filter the images that an {@link ImageParameter} can choose from.
+ * <p>
+ * Descriptors are created using {@link of}, which caches the result for as
+ * long as the image is alive.  Each time it is asked again, it checks that
+ * the image still has the same metadata, and makes a new descriptor if it
+ * doesn't, so a descriptor from <code>of</code> always describes the image as
+ * it is now.  A descriptor itself never changes, though, so one that was kept
+ * describes the image as it was when the descriptor was made.
+ */
+public final class ImageDescriptor {
+    /** Get the descriptor for an image.
+     * <p>
+     * The descriptor is computed the first time it is asked for, and the same
+     * descriptor is returned after that until the image's metadata changes.
+     *
+     * @param image The image to describe.
+     * @return The descriptor for <code>image</code>.
+     */
+    public static ImageDescriptor of(ImagePlus image)
+    {
+        synchronized (S_cache) {
+            ImageDescriptor result = S_cache.get(image);
+            if (result == null || !result.describes(image)) {
+                result = new ImageDescriptor(image);
+                S_cache.put(image, result);
+            }
+            return result;
+        }
+    }
+    /** Recompute the descriptor for an image.
+     * <p>
+     * {@link of} already does this when the image has changed, so this is
+     * only needed to get a new descriptor even if nothing has changed.
+     *
+     * @param image The image to describe.
+     * @return The new descriptor for <code>image</code>.
+     */
+    public static ImageDescriptor refresh(ImagePlus image)
+    {
+        ImageDescriptor result = new ImageDescriptor(image);
+        synchronized (S_cache) {
+            S_cache.put(image, result);
+        }
+        return result;
+    }
+
+    /** Get the title of the image.
+     *
+     * @return The title of the image.
+     */
+    public String getTitle() {return M_title;}
+    /** Get the type of the image.  This is one of the type constants in
+     * ImagePlus, like <code>ImagePlus.GRAY32</code>.
+     *
+     * @return The type of the image.
+     */
+    public int getType() {return M_type;}
+    /** Get the bit depth of the image.
+     *
+     * @return The bit depth of the image.
+     */
+    public int getBitDepth() {return M_bitDepth;}
+    /** Get the width of the image in pixels.
+     *
+     * @return The width of the image.
+     */
+    public int getWidth() {return M_width;}
+    /** Get the height of the image in pixels.
+     *
+     * @return The height of the image.
+     */
+    public int getHeight() {return M_height;}
+    /** Get the number of channels in the image.
+     *
+     * @return The number of channels.
+     */
+    public int getNChannels() {return M_channels;}
+    /** Get the number of slices in the image.
+     *
+     * @return The number of slices.
+     */
+    public int getNSlices() {return M_slices;}
+    /** Get the number of frames in the image.
+     *
+     * @return The number of frames.
+     */
+    public int getNFrames() {return M_frames;}
+    /** Get the total number of planes in the image.
+     *
+     * @return The stack size of the image.
+     */
+    public int getStackSize() {return M_channels * M_slices * M_frames;}
+    /** Get the width of a pixel in calibrated units.
+     *
+     * @return The pixel width.
+     */
+    public double getPixelWidth() {return M_pixelWidth;}
+    /** Get the height of a pixel in calibrated units.
+     *
+     * @return The pixel height.
+     */
+    public double getPixelHeight() {return M_pixelHeight;}
+    /** Get the depth of a pixel in calibrated units.
+     *
+     * @return The pixel depth.
+     */
+    public double getPixelDepth() {return M_pixelDepth;}
+    /** Get the calibrated unit of the image.
+     *
+     * @return The unit, or <code>null</code> if the image has no calibration.
+     */
+    public String getUnit() {return M_unit;}
+
+    private ImageDescriptor(ImagePlus image)
+    {
+        M_title = image.getTitle();
+        M_type = image.getType();
+        M_bitDepth = image.getBitDepth();
+        M_width = image.getWidth();
+        M_height = image.getHeight();
+        M_channels = image.getNChannels();
+        M_slices = image.getNSlices();
+        M_frames = image.getNFrames();
+        Calibration cal = image.getCalibration();
+        if (cal != null) {
+            M_pixelWidth = cal.pixelWidth;
+            M_pixelHeight = cal.pixelHeight;
+            M_pixelDepth = cal.pixelDepth;
+            M_unit = cal.getUnit();
+        }
+        else {
+            M_pixelWidth = 1;
+            M_pixelHeight = 1;
+            M_pixelDepth = 1;
+            M_unit = null;
+        }
+    }
+
+    // Whether or not image still has the metadata in this descriptor
+    private boolean describes(ImagePlus image)
+    {
+        if (!Objects.equals(M_title, image.getTitle())
+            || M_type != image.getType()
+            || M_bitDepth != image.getBitDepth()
+            || M_width != image.getWidth()
+            || M_height != image.getHeight()
+            || M_channels != image.getNChannels()
+            || M_slices != image.getNSlices()
+            || M_frames != image.getNFrames()) {
+            return false;
+        }
+        Calibration cal = image.getCalibration();
+        if (cal == null) {
+            return M_pixelWidth == 1 && M_pixelHeight == 1
+                && M_pixelDepth == 1 && M_unit == null;
+        }
+        return M_pixelWidth == cal.pixelWidth
+            && M_pixelHeight == cal.pixelHeight
+            && M_pixelDepth == cal.pixelDepth
+            && Objects.equals(M_unit, cal.getUnit());
+    }
+
+    private final String M_title;
+    private final int    M_type;
+    private final int    M_bitDepth;
+    private final int    M_width;
+    private final int    M_height;
+    private final int    M_channels;
+    private final int    M_slices;
+    private final int    M_frames;
+    private final double M_pixelWidth;
+    private final double M_pixelHeight;
+    private final double M_pixelDepth;
+    private final String M_unit;
+
+    private static final Map<ImagePlus, ImageDescriptor> S_cache
+        = new WeakHashMap<>();
+}
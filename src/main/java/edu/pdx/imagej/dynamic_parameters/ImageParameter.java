@@ -19,8 +19,12 @@
 
 package edu.pdx.imagej.dynamic_parameters;
 
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import ij.IJ;
@@ -34,6 +38,21 @@ import org.scijava.plugin.Plugin;
  * there are no images open.  However, all of the methods in this class can
  * still be called, and they will all be no-ops (and return <code>null</code> if
  * it has to).
+ * <p>
+ * The images that can be chosen can be limited by passing a filter over
+ * {@link ImageDescriptor}s to the constructor, such as
+ * <code>d -&gt; d.getBitDepth() == 32 &amp;&amp; d.getNSlices() &gt; 1</code>.
+ * <p>
+ * Image files in a directory can also be offered alongside the open images,
+ * in which case they are only opened, as virtual stacks, once they are
+ * actually needed.
+ * <p>
+ * The images themselves are not kept alive by this parameter.  Images from
+ * ImageJ1's WindowManager are remembered by their ID, and images passed in
+ * directly are only weakly referenced.  The image is only looked up when
+ * {@link getValue} is called, and if it has been closed since the parameter
+ * was created, {@link getError} will say so and {@link getValue} will return
+ * <code>null</code>.
  */
 @Plugin(type = DParameter.class)
 public class ImageParameter extends AbstractDParameter<ImagePlus> {
@@ -45,21 +64,98 @@ public class ImageParameter extends AbstractDParameter<ImagePlus> {
      * @param label The label for this parameter to be used on the dialog.
      */
     public ImageParameter(String label)
+    {
+        this(label, (Predicate<ImageDescriptor>)null);
+    }
+    /** Constructor using a label and a filter.
+     * <p>
+     * Only the open images whose {@link ImageDescriptor} passes
+     * <code>filter</code> can be chosen.  The filter only ever looks at the
+     * cached descriptors, so no pixel data is touched while filtering.  If no
+     * open images pass the filter, {@link invalid} will return
+     * <code>true</code>.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param filter The filter deciding which images can be chosen, or
+     *               <code>null</code> to allow every image.
+     */
+    public ImageParameter(String label, Predicate<ImageDescriptor> filter)
+    {
+        this(label, filter, null);
+    }
+    /** Constructor using a label and a directory of image files.
+     * <p>
+     * Along with the open images, every image file in <code>directory</code>
+     * can be chosen.  See {@link ImageParameter(String, Predicate, File)} for
+     * more information.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param directory The directory to list image files from.
+     */
+    public ImageParameter(String label, File directory)
+    {
+        this(label, null, directory);
+    }
+    /** Constructor using a label, a filter, and a directory of image files.
+     * <p>
+     * The open images are filtered like in
+     * {@link ImageParameter(String, Predicate)}.  After them, every TIFF file
+     * in <code>directory</code> can be chosen as well.  These files are not
+     * opened until {@link getValue} is called, and then they are opened as
+     * virtual stacks, so that only the planes that are actually used get
+     * loaded into memory.  Because the files have not been opened yet, the
+     * filter is not used on them.  If there are no open images that pass the
+     * filter and no image files in <code>directory</code>, {@link invalid} will
+     * return <code>true</code>.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param filter The filter deciding which images can be chosen, or
+     *               <code>null</code> to allow every image.
+     * @param directory The directory to list image files from, or
+     *                  <code>null</code> to only use open images.
+     */
+    public ImageParameter(String label, Predicate<ImageDescriptor> filter,
+                          File directory)
     {
         super(label);
         M_label = label;
         int[] idList = WindowManager.getIDList();
-        if (idList == null) {
+        if (idList == null) idList = new int[0];
+        File[] files = null;
+        if (directory != null) {
+            files = directory.listFiles((dir, name) -> isImageFile(name));
+        }
+        if (files == null) files = new File[0];
+        Arrays.sort(files);
+        if (idList.length == 0 && files.length == 0) {
             M_invalid = true;
             setError("At least one image must be open.");
             return;
         }
-        M_options = new String[idList.length];
-        M_images = new ImagePlus[idList.length];
+        int[] ids = new int[idList.length];
+        String[] options = new String[idList.length + files.length];
+        int count = 0;
         for (int i = 0; i < idList.length; ++i) {
-            M_images[i]  = WindowManager.getImage(idList[i]);
-            M_options[i] = String.valueOf(i+1) + ": " + M_images[i].getTitle();
+            ImagePlus imp = WindowManager.getImage(idList[i]);
+            if (filter == null || filter.test(ImageDescriptor.of(imp))) {
+                ids[count] = idList[i];
+                options[count] = String.valueOf(i+1) + ": " + imp.getTitle();
+                ++count;
+            }
         }
+        if (count == 0 && files.length == 0) {
+            M_invalid = true;
+            setError("None of the open images can be used for "
+                + DParameter.displayLabel(label) + ".");
+            return;
+        }
+        M_ids = Arrays.copyOf(ids, count);
+        M_openCount = count;
+        M_files = files;
+        for (File file : files) {
+            options[count++] = file.getName();
+        }
+        M_options = new ChoiceIndex(Arrays.copyOf(options, count));
     }
     /** Constructor with a custom image list.
      * <p>
@@ -72,22 +168,47 @@ public class ImageParameter extends AbstractDParameter<ImagePlus> {
      * @param images A Collection of images that can be selected.
      */
     public ImageParameter(String label, Collection<ImagePlus> images)
+    {
+        this(label, images, null);
+    }
+    /** Constructor with a custom image list and a filter.
+     * <p>
+     * This is the same as {@link ImageParameter(String, Collection)}, except
+     * that only the images whose {@link ImageDescriptor} passes
+     * <code>filter</code> can be chosen.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param images A Collection of images that can be selected.
+     * @param filter The filter deciding which images can be chosen, or
+     *               <code>null</code> to allow every image.
+     */
+    public ImageParameter(String label, Collection<ImagePlus> images,
+                          Predicate<ImageDescriptor> filter)
     {
         super(label);
         M_label = label;
-        if (images.isEmpty()) {
-            M_invalid = true;
-            setError("At least one image must be passed to the parameter "
-                + DParameter.displayLabel(label) + ".");
-        }
-        M_options = new String[images.size()];
-        M_images  = new ImagePlus[M_options.length];
-        int i = 0;
+        M_images = new ArrayList<>(images.size());
+        ArrayList<String> options = new ArrayList<>(images.size());
         for (ImagePlus imp : images) {
-            M_images[i]  = imp;
-            M_options[i] = imp.getTitle();
-            ++i;
+            if (filter == null || filter.test(ImageDescriptor.of(imp))) {
+                M_images.add(new WeakReference<>(imp));
+                options.add(imp.getTitle());
+            }
         }
+        if (M_images.isEmpty()) {
+            M_invalid = true;
+            if (images.isEmpty()) {
+                setError("At least one image must be passed to the parameter "
+                    + DParameter.displayLabel(label) + ".");
+            }
+            else {
+                setError("None of the images passed to the parameter "
+                    + DParameter.displayLabel(label) + " can be used.");
+            }
+            return;
+        }
+        M_options = new ChoiceIndex(options.toArray(new String[0]));
+        M_openCount = M_options.size();
     }
     /** Constructor with a custom image list.
      * <p>
@@ -101,15 +222,80 @@ public class ImageParameter extends AbstractDParameter<ImagePlus> {
     {
         this(label, Arrays.asList(images));
     }
+    /** Constructor with a custom image list and a filter.
+     * <p>
+     * This is an overload that directly calls
+     * {@link ImageParameter(String, Collection, Predicate)}, provided for
+     * convenience.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param images An array of images that can be selected.
+     * @param filter The filter deciding which images can be chosen, or
+     *               <code>null</code> to allow every image.
+     */
+    public ImageParameter(String label, ImagePlus[] images,
+                          Predicate<ImageDescriptor> filter)
+    {
+        this(label, Arrays.asList(images), filter);
+    }
     /** Gets the ImagePlus from this parameter.
+     * <p>
+     * If the selected image has been closed, this returns <code>null</code>
+     * and sets the error.  If the selected image is a file that has not been
+     * opened yet, it is opened as a virtual stack now.
      *
      * @return The ImagePlus from this parameter
      */
     @Override
     public ImagePlus getValue()
     {
-        if (M_images == null) return null;
-        else return M_images[M_currentIndex];
+        if (M_invalid) return null;
+        ImagePlus result = getImage(M_currentIndex);
+        if (result == null) setMissingError();
+        return result;
+    }
+
+    /** Selects an image.
+     * <p>
+     * The image must be one of the images that this parameter could choose
+     * from when it was created.
+     *
+     * @param value The image to select.
+     * @throws IllegalArgumentException If <code>value</code> can't be chosen
+     *                                  by this parameter.
+     */
+    @Override
+    public void setValue(ImagePlus value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        for (int i = 0; i < M_openCount; ++i) {
+            if (getImage(i) == value) {
+                M_currentIndex = i;
+                checkForErrors();
+                notifyIfChanged();
+                return;
+            }
+        }
+        throw new IllegalArgumentException("The image \""
+            + value.getTitle()
+            + "\" can't be chosen for " + displayLabel() + ".");
+    }
+
+    /** Gets the {@link ImageDescriptor} of the selected image.
+     * <p>
+     * This can be used to check the metadata of the image without looking at
+     * the image again.
+     *
+     * @return The descriptor of the selected image, or <code>null</code> if
+     *         the image has been closed.
+     */
+    public ImageDescriptor getDescriptor()
+    {
+        ImagePlus image = getValue();
+        return image == null ? null : ImageDescriptor.of(image);
     }
 
     /** Adds this parameter to the dialog.
@@ -117,47 +303,63 @@ public class ImageParameter extends AbstractDParameter<ImagePlus> {
     @Override
     public void addToDialog(DPDialog dialog)
     {
-        if (M_images == null) return;
+        if (M_invalid) return;
         M_supplier = dialog.addChoiceIndex(M_label,
-                                             M_options[M_currentIndex],
-                                             M_options);
+                                             M_options.get(M_currentIndex),
+                                             M_options.choices());
+        checkForErrors();
     }
     /** Reads this parameter from the dialog.
      */
     @Override
     public void readFromDialog()
     {
-        if (M_images == null) return;
-        M_currentIndex = M_supplier.get();
+        if (M_invalid) return;
+        int index = M_supplier.get();
+        if (index < 0 || index >= M_options.size()) {
+            setError("The image chosen for " + displayLabel()
+                + " is not one of the choices.");
+            return;
+        }
+        M_currentIndex = index;
+        checkForErrors();
+        notifyIfChanged();
     }
     /** Saves the name of this image to prefs.
      * <p>
-     * This class uses the name of the image to try to remember it.
+     * This class uses the name of the image to try to remember it.  The
+     * position of the image is saved as well, to tell apart images that have
+     * the same name.
      *
      * @param c unused
      * @param name unused
      */
     @Override public void saveToPrefs(Class<?> c, String name)
     {
-        if (M_images == null) return;
-        prefs().put(c, name, M_options[M_currentIndex]);
+        if (M_invalid) return;
+        prefs().put(c, name, M_options.get(M_currentIndex));
+        prefs().put(c, name + ".index", M_currentIndex);
     }
     /** Reads the last saved image from prefs and tries to select it again.
      * <p>
-     * If the image name is not found, nothing happens.
+     * If the image name is not found, nothing happens.  If there are several
+     * images with that name, the one in the same position as last time is
+     * used if it has that name, and otherwise the first one is used.
      *
      * @param c unused
      * @param name unused
      */
     @Override public void readFromPrefs(Class<?> c, String name)
     {
-        if (M_images == null) return;
+        if (M_invalid) return;
         String image = prefs().get(c, name);
-        for (int i = 0; i < M_options.length; ++i) {
-            if (M_options[i].equals(image)) {
-                M_currentIndex = i;
-            }
+        int index = prefs().getInt(c, name + ".index", -1);
+        if (index < 0 || index >= M_options.size()
+                || !M_options.get(index).equals(image)) {
+            index = M_options.indexOf(image);
         }
+        if (index != -1) M_currentIndex = index;
+        notifyIfChanged();
     }
     /** Determines if there were no images open during initialization.
      *
@@ -165,10 +367,75 @@ public class ImageParameter extends AbstractDParameter<ImagePlus> {
      */
     @Override public boolean invalid() {return M_invalid;}
 
-    private String            M_label;
-    private ImagePlus[]       M_images;
-    private String[]          M_options;
-    private int               M_currentIndex = 0;
-    private boolean           M_invalid = false;
-    private Supplier<Integer> M_supplier;
+    // What a ParameterSnapshot keeps instead of the image, so that taking a
+    // snapshot never opens a file
+    ImageToken token()
+    {
+        if (M_invalid) return null;
+        if (M_currentIndex >= M_openCount) {
+            return ImageToken.file(M_files[M_currentIndex - M_openCount].getPath());
+        }
+        if (M_ids != null) return ImageToken.open(M_ids[M_currentIndex]);
+        return ImageToken.of(M_images.get(M_currentIndex).get());
+    }
+    private ImagePlus getImage(int index)
+    {
+        if (index >= M_openCount) return openFile(index - M_openCount);
+        if (M_ids != null) return WindowManager.getImage(M_ids[index]);
+        else return M_images.get(index).get();
+    }
+    private ImagePlus openFile(int index)
+    {
+        ImagePlus result = M_fileImage == null ? null : M_fileImage.get();
+        if (result == null || index != M_fileIndex) {
+            result = IJ.openVirtual(M_files[index].getPath());
+            M_fileImage = new WeakReference<>(result);
+            M_fileIndex = index;
+        }
+        return result;
+    }
+    // Checks that the selected image is still available without opening it
+    private void checkForErrors()
+    {
+        boolean available;
+        if (M_currentIndex >= M_openCount) {
+            available = M_files[M_currentIndex - M_openCount].isFile();
+        }
+        else available = getImage(M_currentIndex) != null;
+        if (available) setError(null);
+        else setMissingError();
+    }
+    private void setMissingError()
+    {
+        if (M_currentIndex >= M_openCount) {
+            setError("The file \"" + M_options.get(M_currentIndex)
+                + "\" for " + displayLabel()
+                + " could not be opened.");
+        }
+        else {
+            setError("The image \"" + M_options.get(M_currentIndex)
+                + "\" for " + displayLabel()
+                + " has been closed.");
+        }
+    }
+    private static boolean isImageFile(String name)
+    {
+        String lower = name.toLowerCase();
+        // IJ.openVirtual only opens TIFFs
+        return lower.endsWith(".tif") || lower.endsWith(".tiff");
+    }
+
+    private String                              M_label;
+    // Only one of these two is used, depending on the constructor
+    private int[]                               M_ids;
+    private ArrayList<WeakReference<ImagePlus>> M_images;
+    // The number of already open images, which come before the files
+    private int                                 M_openCount;
+    private File[]                              M_files;
+    private WeakReference<ImagePlus>            M_fileImage;
+    private int                                 M_fileIndex;
+    private ChoiceIndex                         M_options;
+    private int                                 M_currentIndex = 0;
+    private boolean                             M_invalid = false;
+    private Supplier<Integer>                   M_supplier;
 }
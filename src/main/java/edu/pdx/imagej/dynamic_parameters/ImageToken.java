@@ -0,0 +1,90 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+
+import ij.IJ;
+import ij.ImagePlus;
+import ij.WindowManager;
+
+/** ImageToken stands in for an image in a {@link ParameterSnapshot}, without
+ * holding on to the image or opening it.
+ * <p>
+ * An image is remembered by its ID, or by the path of its file if it hasn't
+ * been opened yet, so that snapshots can be compared and kept in a
+ * {@link ResultCache} without keeping closed images from being freed.  The
+ * image is only looked up or opened by {@link resolve}, which should be
+ * called on the thread that uses the snapshot, never the thread of the dialog.
+ */
+final class ImageToken {
+    // An open image that WindowManager knows about
+    static ImageToken open(int id) {return new ImageToken(id, null, null);}
+    // An image that was given to a parameter directly, which is only held
+    // weakly, the same as in the parameter.  Returns null if the image is gone.
+    static ImageToken of(ImagePlus image)
+    {
+        if (image == null) return null;
+        return new ImageToken(image.getID(), null, new WeakReference<>(image));
+    }
+    // An image file that hasn't been opened yet
+    static ImageToken file(String path) {return new ImageToken(0, path, null);}
+
+    // The image, or null if it has been closed or the file can't be opened
+    synchronized ImagePlus resolve()
+    {
+        ImagePlus result = M_image == null ? null : M_image.get();
+        if (M_path == null) {
+            return M_image == null ? WindowManager.getImage(M_id) : result;
+        }
+        if (result == null) {
+            result = IJ.openVirtual(M_path);
+            M_image = new WeakReference<>(result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (!(other instanceof ImageToken)) return false;
+        ImageToken o = (ImageToken)other;
+        return M_id == o.M_id && Objects.equals(M_path, o.M_path);
+    }
+    @Override public int hashCode() {return 31 * M_id + Objects.hashCode(M_path);}
+    @Override
+    public String toString()
+    {
+        return M_path == null ? "image " + M_id : M_path;
+    }
+
+    private ImageToken(int id, String path, WeakReference<ImagePlus> image)
+    {
+        M_id = id;
+        M_path = path;
+        M_image = image;
+    }
+
+    private final int                M_id;
+    private final String             M_path;
+    // For a file, this is the file once it has been opened
+    private WeakReference<ImagePlus> M_image;
+}
@@ -63,6 +63,27 @@ public class IntParameter extends AbstractDParameter<Integer> {
      */
     @Override
     public Integer getValue() {return M_value;}
+    /** Sets the number in this parameter.
+     * <p>
+     * If the number is outside of the bounds, it is treated as an error.
+     *
+     * @param value The new value.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>.
+     */
+    @Override
+    public void setValue(Integer value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        M_value = value;
+        // The value didn't come from the dialog, so the dialog's text doesn't
+        // matter
+        checkForErrors(true);
+        notifyIfChanged();
+    }
     /* Sets the bounds for the value.
      * <p>
      * If the value gets outside of the interval <code>[min, max]</code>, it
@@ -76,9 +97,10 @@ public class IntParameter extends AbstractDParameter<Integer> {
     {
         M_min = min;
         M_max = max;
+        M_errorCode = -1;
         if (M_number != null) {
             M_number.setBounds(min, max);
-            M_value = M_number.get();
+            if (M_number.valid()) M_value = M_number.get();
         }
         checkForErrors();
     }
@@ -90,7 +112,7 @@ public class IntParameter extends AbstractDParameter<Integer> {
     {
         M_number = dialog.addInteger(M_label, M_value, M_units);
         M_number.setBounds(M_min, M_max);
-        M_value = M_number.get();
+        if (M_number.valid()) M_value = M_number.get();
         checkForErrors();
     }
     /** Reads this parameter from the dialog.
@@ -98,9 +120,9 @@ public class IntParameter extends AbstractDParameter<Integer> {
     @Override
     public void readFromDialog()
     {
-        Integer value = M_number.get();
-        if (value != null) M_value = M_number.get();
+        if (M_number.valid()) M_value = M_number.get();
         checkForErrors();
+        notifyIfChanged();
     }
     /** Save this parameter to {@link prefs}
      */
@@ -114,29 +136,44 @@ public class IntParameter extends AbstractDParameter<Integer> {
     {
         M_value = prefs().getInt(c, name, M_value);
         checkForErrors();
+        notifyIfChanged();
     }
 
 
+    // The error is stored as one of these codes, and the message is only made
+    // from the code and the bounds when the harvester asks for it.
+    private static final int NO_ERROR = 0;
+    private static final int NOT_AN_INTEGER = 1;
+    private static final int OUT_OF_BOUNDS = 2;
     private void checkForErrors()
     {
-        if (M_number != null) {
-            if (M_number.get() == null) {
-                setError(DParameter.displayLabel(M_label) + " is not an integer.");
-                return;
-            }
-            if (!M_number.inBounds(M_value)) {
-                if (M_min == Integer.MIN_VALUE) setError(DParameter.displayLabel(M_label) + " must be less than or equal to " + M_max + ".");
-                else if (M_max == Integer.MAX_VALUE) setError(DParameter.displayLabel(M_label) + " must be greater than or equal to " + M_min + ".");
-                else setError(DParameter.displayLabel(M_label) + " is not in the range [" + M_min + ".." + M_max + "].");
-                return;
-            }
-        }
-        setError(null);
+        checkForErrors(M_number == null || M_number.valid());
+    }
+    private void checkForErrors(boolean valid)
+    {
+        int code = NO_ERROR;
+        if (!valid) code = NOT_AN_INTEGER;
+        else if (M_value < M_min || M_value > M_max) code = OUT_OF_BOUNDS;
+        // If the bounds changed, the message needs to be made again even if the
+        // code is the same, so setBounds sets M_errorCode to -1.
+        if (code == M_errorCode) return;
+        M_errorCode = code;
+        if (code == NO_ERROR) setError(null);
+        else setLazyError(M_errorMessage);
+    }
+    private String errorMessage()
+    {
+        if (M_errorCode == NOT_AN_INTEGER) return displayLabel() + " is not an integer.";
+        if (M_min == Integer.MIN_VALUE) return displayLabel() + " must be less than or equal to " + M_max + ".";
+        else if (M_max == Integer.MAX_VALUE) return displayLabel() + " must be greater than or equal to " + M_min + ".";
+        else return displayLabel() + " is not in the range [" + M_min + ".." + M_max + "].";
     }
     private int M_value;
     private int M_min = Integer.MIN_VALUE;
     private int M_max = Integer.MAX_VALUE;
     private String M_label;
     private String M_units;
-    private DPDialog.DialogNumber<Integer> M_number;
+    private DPDialog.DialogInteger M_number;
+    private int M_errorCode = NO_ERROR;
+    private Supplier<String> M_errorMessage = this::errorMessage;
 }
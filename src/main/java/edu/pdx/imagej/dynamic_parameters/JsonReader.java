@@ -0,0 +1,235 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/** JsonReader reads JSON one token at a time, without building anything in
+ * memory, so that {@link ParameterJson} can put each value straight into its
+ * parameter.
+ * <p>
+ * Objects are read with {@link beginObject}, then {@link hasNext} and
+ * {@link nextName} for each member, and then {@link endObject}.  Everything
+ * other than objects is read with {@link nextValue}.
+ */
+final class JsonReader {
+    JsonReader(Reader in)
+    {
+        M_in = in;
+    }
+    void beginObject() throws IOException
+    {
+        expect('{');
+        push();
+    }
+    // Returns false at the end of an object or array, and otherwise reads the
+    // comma before the next member if it needs to
+    boolean hasNext() throws IOException
+    {
+        int c = peek();
+        if (c == '}' || c == ']') return false;
+        if (M_first[M_depth]) M_first[M_depth] = false;
+        else expect(',');
+        return true;
+    }
+    String nextName() throws IOException
+    {
+        if (peek() != '"') throw error("Expected a name");
+        String result = readString();
+        expect(':');
+        return result;
+    }
+    void endObject() throws IOException
+    {
+        expect('}');
+        --M_depth;
+    }
+    // The next character that isn't whitespace, without reading it, or -1 at
+    // the end
+    int peek() throws IOException
+    {
+        while (true) {
+            if (M_next == NONE) M_next = M_in.read();
+            if (M_next == -1 || !Character.isWhitespace(M_next)) return M_next;
+            read();
+        }
+    }
+    // Reads a string, number, boolean, or null.  An array of numbers is read
+    // as an int[] if all of the numbers are integers, and a double[]
+    // otherwise.
+    Object nextValue() throws IOException
+    {
+        int c = peek();
+        if (c == '"') return readString();
+        if (c == '[') return readNumbers();
+        if (c == 't') return literal("true", Boolean.TRUE);
+        if (c == 'f') return literal("false", Boolean.FALSE);
+        if (c == 'n') return literal("null", null);
+        if (c == '-' || (c >= '0' && c <= '9')) return readNumber();
+        throw error("Expected a value");
+    }
+    void skipValue() throws IOException
+    {
+        int c = peek();
+        if (c == '{') {
+            beginObject();
+            while (hasNext()) {
+                nextName();
+                skipValue();
+            }
+            endObject();
+        }
+        else if (c == '[') {
+            expect('[');
+            push();
+            while (hasNext()) skipValue();
+            expect(']');
+            --M_depth;
+        }
+        else nextValue();
+    }
+    // Checks that there is nothing but whitespace left
+    void endDocument() throws IOException
+    {
+        if (peek() != -1) throw error("Expected the end of the input");
+    }
+
+    private Object readNumbers() throws IOException
+    {
+        expect('[');
+        push();
+        double[] values = new double[8];
+        boolean integers = true;
+        int count = 0;
+        while (hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            Object value = nextValue();
+            if (value instanceof Double) integers = false;
+            else if (!(value instanceof Long)) {
+                throw error("Expected a number");
+            }
+            values[count++] = ((Number)value).doubleValue();
+        }
+        expect(']');
+        --M_depth;
+        if (!integers) return Arrays.copyOf(values, count);
+        int[] result = new int[count];
+        for (int i = 0; i < count; ++i) result[i] = (int)values[i];
+        return result;
+    }
+    private Object readNumber() throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        boolean integer = true;
+        while (true) {
+            int c = peekRaw();
+            if (c == '.' || c == 'e' || c == 'E') integer = false;
+            else if (c != '-' && c != '+' && (c < '0' || c > '9')) break;
+            text.append((char)read());
+        }
+        try {
+            if (integer) return Long.valueOf(text.toString());
+            return Double.valueOf(text.toString());
+        }
+        catch (NumberFormatException e) {
+            throw error("\"" + text + "\" is not a number");
+        }
+    }
+    private String readString() throws IOException
+    {
+        expect('"');
+        StringBuilder result = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == -1) throw error("Unterminated string");
+            if (c == '"') return result.toString();
+            if (c != '\\') {
+                result.append((char)c);
+                continue;
+            }
+            c = read();
+            switch (c) {
+                case '"': case '\\': case '/': result.append((char)c); break;
+                case 'b': result.append('\b'); break;
+                case 'f': result.append('\f'); break;
+                case 'n': result.append('\n'); break;
+                case 'r': result.append('\r'); break;
+                case 't': result.append('\t'); break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; ++i) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit == -1) throw error("Bad unicode escape");
+                        code = code * 16 + digit;
+                    }
+                    result.append((char)code);
+                    break;
+                default: throw error("Bad escape");
+            }
+        }
+    }
+    private Object literal(String text, Object value) throws IOException
+    {
+        for (int i = 0; i < text.length(); ++i) {
+            if (read() != text.charAt(i)) throw error("Expected " + text);
+        }
+        return value;
+    }
+    private void expect(char c) throws IOException
+    {
+        if (peek() != c) throw error("Expected '" + c + "'");
+        read();
+    }
+    private void push()
+    {
+        if (++M_depth == M_first.length) {
+            M_first = Arrays.copyOf(M_first, M_depth * 2);
+        }
+        M_first[M_depth] = true;
+    }
+    private int peekRaw() throws IOException
+    {
+        if (M_next == NONE) M_next = M_in.read();
+        return M_next;
+    }
+    private int read() throws IOException
+    {
+        int result = peekRaw();
+        M_next = NONE;
+        if (result != -1) ++M_position;
+        return result;
+    }
+    private IOException error(String message)
+    {
+        return new IOException(message + " at character " + M_position + ".");
+    }
+
+    private static final int NONE = -2;
+    private final Reader M_in;
+    private int          M_next = NONE;
+    private long         M_position = 0;
+    // Whether the object or array at each depth has no members read yet
+    private boolean[]    M_first = new boolean[16];
+    private int          M_depth = 0;
+}
@@ -0,0 +1,180 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.function.Supplier;
+
+import org.scijava.plugin.Plugin;
+
+/** LongParameter is a {@link DParameter} that holds a long integer.
+ *
+ * It also has support for bounds checking using its {@link setBounds}
+ * function.  If the value that the user inputs is outside of this bound, it
+ * will be treated as an error.
+ * <p>
+ * Use this instead of {@link IntParameter} for values that might not fit in an
+ * <code>int</code>, like frame indices of very long time series or byte
+ * offsets into large files.  The value is stored as a primitive
+ * <code>long</code>, so no precision is lost.
+ */
+@Plugin(type = DParameter.class)
+public class LongParameter extends AbstractDParameter<Long> {
+    /** Construct using a starting value and its label.
+     * <p>
+     * This constructor defaults to having no units.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     */
+    public LongParameter(long startingValue, String label)
+        {this(startingValue, label, "");}
+    /** Construct using a starting value, its label, and the units.
+     *
+     * @param startingValue The value that this parameter starts at.
+     * @param label The label for this parameter to be used on the dialog.
+     * @param units The units to be used for the value.  It is purely aesthetic.
+     */
+    public LongParameter(long startingValue, String label, String units)
+    {
+        super(label);
+        M_value = startingValue;
+        M_label = label;
+        M_units = units;
+    }
+    /** Gets the number from this parameter.
+     *
+     * @return The number from this parameter
+     */
+    @Override
+    public Long getValue() {return M_value;}
+    /** Sets the number in this parameter.
+     * <p>
+     * If the number is outside of the bounds, it is treated as an error.
+     *
+     * @param value The new value.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>.
+     */
+    @Override
+    public void setValue(Long value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        M_value = value;
+        // The value didn't come from the dialog, so the dialog's text doesn't
+        // matter
+        checkForErrors(true);
+        notifyIfChanged();
+    }
+    /** Sets the bounds for the value.
+     * <p>
+     * If the value gets outside of the interval <code>[min, max]</code>, it
+     * will be treated as an error.  To have no upper bound, use
+     * <code>Long.MAX_VALUE</code>, and likewise for the lower bound.
+     *
+     * @param min The minimum value that this parameter should take
+     * @param max The maximum value that this parameter should take
+     */
+    public void setBounds(long min, long max)
+    {
+        M_min = min;
+        M_max = max;
+        M_errorCode = -1;
+        if (M_number != null) {
+            M_number.setBounds(min, max);
+            if (M_number.valid()) M_value = M_number.get();
+        }
+        checkForErrors();
+    }
+
+    /** Adds this parameter to the dialog.
+     */
+    @Override
+    public void addToDialog(DPDialog dialog)
+    {
+        M_number = dialog.addLong(M_label, M_value, M_units);
+        M_number.setBounds(M_min, M_max);
+        if (M_number.valid()) M_value = M_number.get();
+        checkForErrors();
+    }
+    /** Reads this parameter from the dialog.
+     */
+    @Override
+    public void readFromDialog()
+    {
+        if (M_number.valid()) M_value = M_number.get();
+        checkForErrors();
+        notifyIfChanged();
+    }
+    /** Save this parameter to {@link prefs}
+     */
+    @Override
+    public void saveToPrefs(Class<?> c, String name)
+        {prefs().put(c, name, M_value);}
+    /** Read this parameter from {@link prefs}
+     */
+    @Override
+    public void readFromPrefs(Class<?> c, String name)
+    {
+        M_value = prefs().getLong(c, name, M_value);
+        checkForErrors();
+        notifyIfChanged();
+    }
+
+
+    // The error is stored as one of these codes, and the message is only made
+    // from the code and the bounds when the harvester asks for it.
+    private static final int NO_ERROR = 0;
+    private static final int NOT_AN_INTEGER = 1;
+    private static final int OUT_OF_BOUNDS = 2;
+    private void checkForErrors()
+    {
+        checkForErrors(M_number == null || M_number.valid());
+    }
+    private void checkForErrors(boolean valid)
+    {
+        int code = NO_ERROR;
+        if (!valid) code = NOT_AN_INTEGER;
+        else if (M_value < M_min || M_value > M_max) code = OUT_OF_BOUNDS;
+        // If the bounds changed, the message needs to be made again even if the
+        // code is the same, so setBounds sets M_errorCode to -1.
+        if (code == M_errorCode) return;
+        M_errorCode = code;
+        if (code == NO_ERROR) setError(null);
+        else setLazyError(M_errorMessage);
+    }
+    private String errorMessage()
+    {
+        if (M_errorCode == NOT_AN_INTEGER) return displayLabel() + " is not an integer.";
+        if (M_min == Long.MIN_VALUE) return displayLabel() + " must be less than or equal to " + M_max + ".";
+        else if (M_max == Long.MAX_VALUE) return displayLabel() + " must be greater than or equal to " + M_min + ".";
+        else return displayLabel() + " is not in the range [" + M_min + ".." + M_max + "].";
+    }
+    private long M_value;
+    private long M_min = Long.MIN_VALUE;
+    private long M_max = Long.MAX_VALUE;
+    private String M_label;
+    private String M_units;
+    private DPDialog.DialogLong M_number;
+    private int M_errorCode = NO_ERROR;
+    private Supplier<String> M_errorMessage = this::errorMessage;
+}
@@ -0,0 +1,175 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import ij.plugin.frame.Recorder;
+
+/** MacroOptions connects dynamic parameters to ImageJ's macro language.
+ * <p>
+ * Every input that a visible parameter puts on the dialog is given a macro key
+ * made from the path of the parameter, like <code>group.value</code>, with
+ * spaces and colons replaced by underscores and in lower case, so that the
+ * whole label is kept but a key never has a space in it.  If a parameter has an input with a different label
+ * than the parameter, such as the title filter of a
+ * {@link MultiImageParameter}, that input's key is the parameter's key
+ * followed by a period and the input's label.  Booleans are recorded as a key
+ * on its own when they are true, like the checkboxes in ImageJ's dialogs.
+ */
+final class MacroOptions {
+    private MacroOptions() {}
+
+    // Records the values of all of the visible parameters with ImageJ's macro
+    // recorder
+    static void record(DParameter<?>[] params)
+    {
+        forEachOption(params, (key, value) -> {
+            if (value instanceof Boolean) {
+                if ((Boolean)value) Recorder.recordOption(key);
+            }
+            else Recorder.recordOption(key, String.valueOf(value));
+        });
+    }
+    // Calls action with the key and value of every input of every visible
+    // parameter
+    static void forEachOption(DParameter<?>[] params,
+                              BiConsumer<String, Object> action)
+    {
+        forEachInput(params, (key, param, inputs) -> {
+            for (Map.Entry<String, Object> input : inputs.entrySet()) {
+                action.accept(key(key, param, input.getKey()),
+                              input.getValue());
+            }
+        });
+    }
+    // Gives every visible parameter its values from the macro options, as if
+    // they were typed into the dialog.  Inputs that aren't in the options keep
+    // their values, except for booleans, which are false if they aren't there.
+    static void apply(DParameter<?>[] params, String options)
+    {
+        Map<String, String> tokens = tokenize(options);
+        forEachInput(params, (key, param, inputs) -> {
+            HashMap<String, Object> values = new HashMap<>();
+            for (Map.Entry<String, Object> input : inputs.entrySet()) {
+                String inputKey = key(key, param, input.getKey());
+                Object current = input.getValue();
+                if (current instanceof Boolean) {
+                    values.put(input.getKey(), tokens.containsKey(inputKey)
+                        && tokens.get(inputKey) == null);
+                    continue;
+                }
+                String text = tokens.get(inputKey);
+                if (text != null) {
+                    values.put(input.getKey(), parse(inputKey, text, current));
+                }
+            }
+            param.addToDialog(new ValueDialog(values));
+            param.readFromDialog();
+        });
+    }
+
+    private interface InputAction {
+        void accept(String key, DParameter<?> param, Map<String, Object> inputs);
+    }
+    private static void forEachInput(DParameter<?>[] params, InputAction action)
+    {
+        for (DParameter<?> param : params) {
+            if (param.visible()) forEachInput(param, key(param.label()), action);
+        }
+    }
+    private static void forEachInput(DParameter<?> param, String key,
+                                     InputAction action)
+    {
+        if (param instanceof HoldingParameter) {
+            for (DParameter<?> child
+                    : ((HoldingParameter<?>)param).getAllParams()) {
+                if (child.visible()) {
+                    forEachInput(child, key + "." + key(child.label()), action);
+                }
+            }
+            return;
+        }
+        // The inputs are found by giving the parameter a dialog that records
+        // them
+        LinkedHashMap<String, Object> inputs = new LinkedHashMap<>();
+        param.addToDialog(new ValueDialog(new HashMap<>(), inputs));
+        if (!inputs.isEmpty()) action.accept(key, param, inputs);
+    }
+    private static String key(String key, DParameter<?> param, String input)
+    {
+        if (input.equals(param.label())) return key;
+        return key + "." + key(input);
+    }
+    private static String key(String label)
+    {
+        return label.trim().replaceAll("[\\s:]+", "_").toLowerCase(Locale.US);
+    }
+    // Splits the options into their keys and values, not counting spaces
+    // inside of brackets.  A key on its own, like a true boolean, has a null
+    // value.  Keys are looked up exactly, unlike Macro.getValue, which would
+    // find "radius" inside of "group.radius".
+    private static Map<String, String> tokenize(String options)
+    {
+        HashMap<String, String> result = new HashMap<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= options.length(); ++i) {
+            char c = i == options.length() ? ' ' : options.charAt(i);
+            if (c == '[') ++depth;
+            else if (c == ']') --depth;
+            else if (c == ' ' && depth == 0) {
+                String token = options.substring(start, i);
+                start = i + 1;
+                if (token.isEmpty()) continue;
+                int equals = token.indexOf('=');
+                if (equals == -1) {
+                    result.putIfAbsent(token, null);
+                    continue;
+                }
+                String value = token.substring(equals + 1);
+                if (value.startsWith("[") && value.endsWith("]")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                result.putIfAbsent(token.substring(0, equals), value);
+            }
+        }
+        return result;
+    }
+    // Turns the text into the same type as the current value
+    private static Object parse(String key, String text, Object current)
+    {
+        try {
+            if (current instanceof Double || current instanceof Float) {
+                return Double.valueOf(text.trim());
+            }
+            if (current instanceof Number) return Long.valueOf(text.trim());
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The value \"" + text
+                + "\" for " + key + " is not a number.");
+        }
+        return text;
+    }
+}
@@ -0,0 +1,395 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import ij.ImagePlus;
+import ij.WindowManager;
+
+import org.scijava.plugin.Plugin;
+
+/** MultiImageParameter is a {@link DParameter} that gets several ImagePluses
+ * from the currently open images, so that one command can be run on all of
+ * them.
+ * <p>
+ * The images are chosen with two text boxes.  The first is a list of image
+ * numbers and ranges, such as <code>1-4, 7, 9-12</code>, where the numbers are
+ * the positions of the images in the list of images (for the open images, this
+ * is the same order as in ImageJ's Window menu).  The second is a filter on
+ * the image titles: if it is not empty, only images whose title contains it
+ * are chosen.  The value is the list of images that satisfy both, in order.
+ * <p>
+ * Like {@link ImageParameter}, the images are remembered by ID or weak
+ * reference, and the images that can be chosen can be limited using a filter
+ * over {@link ImageDescriptor}s.  The selection is saved to prefs by title, so
+ * it still works if the images are closed and reopened.
+ */
+@Plugin(type = DParameter.class)
+public class MultiImageParameter extends AbstractDParameter<List<ImagePlus>> {
+    /** Constructor using a label.
+     * <p>
+     * If there are no images open, {@link invalid} will return
+     * <code>true</code>.  All images start out selected.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     */
+    public MultiImageParameter(String label)
+    {
+        this(label, (Predicate<ImageDescriptor>)null);
+    }
+    /** Constructor using a label and a filter.
+     * <p>
+     * Only the open images whose {@link ImageDescriptor} passes
+     * <code>filter</code> can be chosen.  If no open images pass the filter,
+     * {@link invalid} will return <code>true</code>.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param filter The filter deciding which images can be chosen, or
+     *               <code>null</code> to allow every image.
+     */
+    public MultiImageParameter(String label, Predicate<ImageDescriptor> filter)
+    {
+        super(label);
+        M_label = label;
+        int[] idList = WindowManager.getIDList();
+        if (idList == null) {
+            M_invalid = true;
+            setError("At least one image must be open.");
+            return;
+        }
+        int[] ids = new int[idList.length];
+        String[] titles = new String[idList.length];
+        int count = 0;
+        for (int i = 0; i < idList.length; ++i) {
+            ImagePlus imp = WindowManager.getImage(idList[i]);
+            if (filter == null || filter.test(ImageDescriptor.of(imp))) {
+                ids[count] = idList[i];
+                titles[count] = imp.getTitle();
+                ++count;
+            }
+        }
+        if (count == 0) {
+            M_invalid = true;
+            setError("None of the open images can be used for "
+                + DParameter.displayLabel(label) + ".");
+            return;
+        }
+        M_ids = Arrays.copyOf(ids, count);
+        M_titles = Arrays.copyOf(titles, count);
+        selectAll();
+    }
+    /** Constructor with a custom image list.
+     * <p>
+     * This constructor takes in all of the possible images rather than using
+     * ImageJ1's WindowManager.  All images start out selected.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param images A Collection of images that can be selected.
+     */
+    public MultiImageParameter(String label, Collection<ImagePlus> images)
+    {
+        this(label, images, null);
+    }
+    /** Constructor with a custom image list and a filter.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param images A Collection of images that can be selected.
+     * @param filter The filter deciding which images can be chosen, or
+     *               <code>null</code> to allow every image.
+     */
+    public MultiImageParameter(String label, Collection<ImagePlus> images,
+                               Predicate<ImageDescriptor> filter)
+    {
+        super(label);
+        M_label = label;
+        M_images = new ArrayList<>(images.size());
+        ArrayList<String> titles = new ArrayList<>(images.size());
+        for (ImagePlus imp : images) {
+            if (filter == null || filter.test(ImageDescriptor.of(imp))) {
+                M_images.add(new WeakReference<>(imp));
+                titles.add(imp.getTitle());
+            }
+        }
+        if (M_images.isEmpty()) {
+            M_invalid = true;
+            setError("At least one usable image must be passed to the "
+                + "parameter " + DParameter.displayLabel(label) + ".");
+            return;
+        }
+        M_titles = titles.toArray(new String[0]);
+        selectAll();
+    }
+    /** Constructor with a custom image list.
+     * <p>
+     * This is an overload that directly calls
+     * {@link MultiImageParameter(String, Collection)}, provided for
+     * convenience.
+     *
+     * @param label The label for this parameter to be used on the dialog.
+     * @param images An array of images that can be selected.
+     */
+    public MultiImageParameter(String label, ImagePlus[] images)
+    {
+        this(label, Arrays.asList(images));
+    }
+    /** Gets the selected images.
+     * <p>
+     * If any of the selected images have been closed, this returns
+     * <code>null</code> and sets the error.
+     *
+     * @return The selected images, in order.
+     */
+    @Override
+    public List<ImagePlus> getValue()
+    {
+        if (M_invalid) return null;
+        ArrayList<ImagePlus> result = new ArrayList<>();
+        for (int i = 0; i < M_titles.length; ++i) {
+            if (!isChosen(i)) continue;
+            ImagePlus image = getImage(i);
+            if (image == null) {
+                setError("The image \"" + M_titles[i] + "\" for "
+                    + displayLabel() + " has been closed.");
+                return null;
+            }
+            result.add(image);
+        }
+        return result;
+    }
+
+    /** Selects images.
+     * <p>
+     * Every image must be one of the images that this parameter could choose
+     * from when it was created.  The title filter is cleared, and the images
+     * are still given by {@link getValue} in the order of the list of images,
+     * not the order of <code>value</code>.
+     *
+     * @param value The images to select.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>, or if any image in
+     *                                  it can't be chosen by this parameter.
+     * @throws UnsupportedOperationException If there were no images to choose
+     *                                       from.
+     */
+    @Override
+    public void setValue(List<ImagePlus> value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        if (M_invalid) {
+            throw new UnsupportedOperationException("There are no images to "
+                + "choose from for " + displayLabel() + ".");
+        }
+        boolean[] selected = new boolean[M_titles.length];
+        for (ImagePlus imp : value) {
+            int index = -1;
+            for (int i = 0; i < M_titles.length && index == -1; ++i) {
+                if (imp != null && getImage(i) == imp) index = i;
+            }
+            if (index == -1) {
+                throw new IllegalArgumentException("The image \""
+                    + (imp == null ? null : imp.getTitle())
+                    + "\" can't be chosen for " + displayLabel() + ".");
+            }
+            selected[index] = true;
+        }
+        M_filter = "";
+        M_range = formatRange(selected);
+        checkForErrors();
+        notifyIfChanged();
+    }
+
+    /** Adds this parameter to the dialog.
+     */
+    @Override
+    public void addToDialog(DPDialog dialog)
+    {
+        if (M_invalid) return;
+        M_rangeSupplier = dialog.addTextBox(M_label, M_range);
+        M_filterSupplier = dialog.addTextBox(M_label + " title filter",
+                                             M_filter);
+    }
+    /** Reads this parameter from the dialog.
+     */
+    @Override
+    public void readFromDialog()
+    {
+        if (M_invalid) return;
+        M_range = M_rangeSupplier.get();
+        M_filter = M_filterSupplier.get();
+        checkForErrors();
+        notifyIfChanged();
+    }
+    /** Saves the titles of the selected images to prefs.
+     */
+    @Override public void saveToPrefs(Class<?> c, String name)
+    {
+        if (M_invalid) return;
+        StringBuilder titles = new StringBuilder();
+        for (int i = 0; i < M_titles.length; ++i) {
+            if (isChosen(i)) titles.append(M_titles[i]).append('\n');
+        }
+        prefs().put(c, name, titles.toString());
+        prefs().put(c, name + ".filter", M_filter);
+    }
+    /** Reads the titles of the last selected images from prefs and selects
+     * every image that has one of those titles.
+     * <p>
+     * If none of the titles are found, nothing happens.
+     */
+    @Override public void readFromPrefs(Class<?> c, String name)
+    {
+        if (M_invalid) return;
+        String saved = prefs().get(c, name);
+        if (saved == null) return;
+        HashSet<String> titles = new HashSet<>(Arrays.asList(saved.split("\n")));
+        boolean[] selected = new boolean[M_titles.length];
+        boolean any = false;
+        for (int i = 0; i < M_titles.length; ++i) {
+            selected[i] = titles.contains(M_titles[i]);
+            any |= selected[i];
+        }
+        if (!any) return;
+        M_selected = selected;
+        M_range = formatRange(selected);
+        M_filter = prefs().get(c, name + ".filter", "");
+        checkForErrors();
+        notifyIfChanged();
+    }
+    /** Determines if there were no images open during initialization.
+     *
+     * @return Whether or not there are no images open.
+     */
+    @Override public boolean invalid() {return M_invalid;}
+
+    // What a ParameterSnapshot keeps instead of the images
+    ImageToken[] tokens()
+    {
+        if (M_invalid) return null;
+        ArrayList<ImageToken> result = new ArrayList<>();
+        for (int i = 0; i < M_titles.length; ++i) {
+            if (!isChosen(i)) continue;
+            if (M_ids != null) result.add(ImageToken.open(M_ids[i]));
+            else result.add(ImageToken.of(M_images.get(i).get()));
+        }
+        return result.toArray(new ImageToken[0]);
+    }
+
+    private void selectAll()
+    {
+        M_selected = new boolean[M_titles.length];
+        Arrays.fill(M_selected, true);
+        M_range = formatRange(M_selected);
+    }
+    private boolean isChosen(int index)
+    {
+        return M_selected[index]
+            && (M_filter.isEmpty() || M_titles[index].contains(M_filter));
+    }
+    private void checkForErrors()
+    {
+        boolean[] selected = parseRange(M_range, M_titles.length);
+        if (selected == null) {
+            setError(displayLabel() + " must be a list of "
+                + "image numbers or ranges from 1 to " + M_titles.length
+                + ", like \"1-3, 5\".");
+            return;
+        }
+        M_selected = selected;
+        for (int i = 0; i < M_titles.length; ++i) {
+            if (isChosen(i)) {
+                setError(null);
+                return;
+            }
+        }
+        setError("No images are selected for "
+            + displayLabel() + ".");
+    }
+    private ImagePlus getImage(int index)
+    {
+        if (M_ids != null) return WindowManager.getImage(M_ids[index]);
+        else return M_images.get(index).get();
+    }
+    // Returns null if the text can't be parsed
+    private static boolean[] parseRange(String text, int size)
+    {
+        boolean[] result = new boolean[size];
+        for (String part : text.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            int dash = part.indexOf('-');
+            int first, last;
+            try {
+                if (dash == -1) {
+                    first = last = Integer.parseInt(part);
+                }
+                else {
+                    first = Integer.parseInt(part.substring(0, dash).trim());
+                    last = Integer.parseInt(part.substring(dash + 1).trim());
+                }
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+            if (first < 1 || last > size || first > last) return null;
+            for (int i = first; i <= last; ++i) result[i - 1] = true;
+        }
+        return result;
+    }
+    private static String formatRange(boolean[] selected)
+    {
+        StringBuilder result = new StringBuilder();
+        int i = 0;
+        while (i < selected.length) {
+            if (!selected[i]) {
+                ++i;
+                continue;
+            }
+            int start = i;
+            while (i < selected.length && selected[i]) ++i;
+            if (result.length() != 0) result.append(", ");
+            result.append(start + 1);
+            if (i - 1 > start) result.append('-').append(i);
+        }
+        return result.toString();
+    }
+
+    private String                              M_label;
+    // Only one of these two is used, depending on the constructor
+    private int[]                               M_ids;
+    private ArrayList<WeakReference<ImagePlus>> M_images;
+    private String[]                            M_titles;
+    private boolean[]                           M_selected;
+    private String                              M_range;
+    private String                              M_filter = "";
+    private boolean                             M_invalid = false;
+    private Supplier<String>                    M_rangeSupplier;
+    private Supplier<String>                    M_filterSupplier;
+}
@@ -0,0 +1,109 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.Arrays;
+
+/** NumberList parses and formats lists of numbers for the array parameters.
+ * <p>
+ * The numbers can be separated by commas, semicolons, or whitespace.  The text
+ * is parsed in one pass straight into a primitive array, without boxing any of
+ * the numbers.
+ */
+final class NumberList {
+    private NumberList() {}
+
+    // Returns null if any of the numbers couldn't be parsed, or were NaN or
+    // infinite
+    static double[] parseDoubles(String text)
+    {
+        double[] result = new double[8];
+        int count = 0;
+        int i = 0;
+        int length = text.length();
+        while (true) {
+            while (i < length && isSeparator(text.charAt(i))) ++i;
+            if (i == length) break;
+            int start = i;
+            while (i < length && !isSeparator(text.charAt(i))) ++i;
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            try {
+                result[count] = Double.parseDouble(text.substring(start, i));
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+            if (Double.isNaN(result[count]) || Double.isInfinite(result[count])) {
+                return null;
+            }
+            ++count;
+        }
+        return Arrays.copyOf(result, count);
+    }
+    // Returns null if any of the numbers couldn't be parsed
+    static int[] parseInts(String text)
+    {
+        int[] result = new int[8];
+        int count = 0;
+        int i = 0;
+        int length = text.length();
+        while (true) {
+            while (i < length && isSeparator(text.charAt(i))) ++i;
+            if (i == length) break;
+            int start = i;
+            while (i < length && !isSeparator(text.charAt(i))) ++i;
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            try {
+                result[count++] = Integer.parseInt(text.substring(start, i));
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    static String format(double[] values)
+    {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < values.length; ++i) {
+            if (i != 0) result.append(", ");
+            result.append(values[i]);
+        }
+        return result.toString();
+    }
+    static String format(int[] values)
+    {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < values.length; ++i) {
+            if (i != 0) result.append(", ");
+            result.append(values[i]);
+        }
+        return result.toString();
+    }
+
+    private static boolean isSeparator(char c)
+    {
+        return c == ',' || c == ';' || Character.isWhitespace(c);
+    }
+}
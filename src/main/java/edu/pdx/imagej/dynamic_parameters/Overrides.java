@@ -0,0 +1,119 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Overrides says which functions of {@link AbstractDParameter} and
+ * {@link HoldingParameter} a class of parameter has replaced with its own,
+ * and what type of value its {@link DParameter#setValue} takes.
+ * Parts of this library that work around a parameter instead of through it,
+ * like keeping visibility counts or putting a holder's children in its place,
+ * can only do so if the parameter uses the library's versions of the
+ * functions they skip.
+ * <p>
+ * Each class is only looked at once.
+ */
+final class Overrides {
+    private Overrides() {}
+
+    // Whether or not param can tell its holder when its visibility changes
+    static boolean tracksVisibility(DParameter<?> param)
+    {
+        return param instanceof AbstractDParameter
+            && none(param, VISIBILITY_FUNCTIONS);
+    }
+    // Whether or not param is a holder whose visibility, errors, and width
+    // come straight from its children, so that the children can be used in
+    // its place
+    static boolean flattensTree(DParameter<?> param)
+    {
+        return param instanceof HoldingParameter
+            && none(param, VISIBILITY_FUNCTIONS)
+            && none(param, TREE_FUNCTIONS);
+    }
+    // Whether or not param is a holder whose dialog inputs are only its
+    // children's, so that the children can be given their values directly
+    static boolean flattensDialog(DParameter<?> param)
+    {
+        return param instanceof HoldingParameter
+            && none(param, DIALOG_FUNCTIONS);
+    }
+
+    // The type of value that param's setValue takes, or Object if it can't be
+    // told
+    static Class<?> valueType(DParameter<?> param)
+    {
+        return S_valueTypes.computeIfAbsent(param.getClass(), c -> {
+            Class<?> result = null;
+            for (Method method : c.getMethods()) {
+                if (method.getName().equals("setValue")
+                        && method.getParameterCount() == 1
+                        && !method.isBridge()) {
+                    // With more than one, the bridge decides which is used
+                    if (result != null) return Object.class;
+                    result = method.getParameterTypes()[0];
+                }
+            }
+            return result == null ? Object.class : result;
+        });
+    }
+
+    private static boolean none(DParameter<?> param, List<String> functions)
+    {
+        Set<String> overridden
+            = S_overridden.computeIfAbsent(param.getClass(), c -> {
+                HashSet<String> result = new HashSet<>();
+                for (Method method : c.getMethods()) {
+                    Class<?> owner = method.getDeclaringClass();
+                    if (owner != AbstractDParameter.class
+                            && owner != HoldingParameter.class) {
+                        result.add(method.getName());
+                    }
+                }
+                return result;
+            });
+        for (String function : functions) {
+            if (overridden.contains(function)) return false;
+        }
+        return true;
+    }
+
+    private static final List<String> VISIBILITY_FUNCTIONS = Arrays.asList(
+        "visibilityChanged", "setNewVisibility", "refreshVisibility"
+    );
+    private static final List<String> TREE_FUNCTIONS = Arrays.asList(
+        "getError", "getWarning", "width"
+    );
+    private static final List<String> DIALOG_FUNCTIONS = Arrays.asList(
+        "addToDialog", "readFromDialog"
+    );
+    // The names of the functions each class has its own versions of
+    private static final ConcurrentHashMap<Class<?>, Set<String>> S_overridden
+        = new ConcurrentHashMap<>();
+    // The type each class's setValue takes
+    private static final ConcurrentHashMap<Class<?>, Class<?>> S_valueTypes
+        = new ConcurrentHashMap<>();
+}
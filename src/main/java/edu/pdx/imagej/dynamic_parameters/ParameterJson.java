@@ -0,0 +1,242 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** ParameterJson writes the values of a tree of {@link DParameter}s as JSON,
+ * and reads them back in.  This can be used to save a whole configuration to
+ * a file and use it somewhere else.
+ * <p>
+ * The JSON is one object with a member for each parameter, named by its
+ * {@link DParameter#label label}.  A {@link HoldingParameter} is an object
+ * holding all of its parameters, including the ones that aren't visible, so
+ * for a {@link PluginParameter} every plugin's parameters are written along
+ * with which plugin is chosen.  This goes around the holder straight to its
+ * parameters, so it is only done for holders that use HoldingParameter's own
+ * {@link DParameter#addToDialog addToDialog} and
+ * {@link DParameter#readFromDialog readFromDialog}.  A holder that overrides
+ * either of them is written like any other parameter, with only the inputs
+ * its <code>addToDialog</code> puts on the dialog.  Any other parameter is
+ * written as the values it would put on the dialog: if it has one input with
+ * the same label as the parameter, that value is written directly, and
+ * otherwise it is an object with a member for each input.  For example:
+ * <pre>
+ * {
+ *   "Sigma": 2.5,
+ *   "Method": {
+ *     "Method": "Gaussian",
+ *     "Radius": 3
+ *   }
+ * }
+ * </pre>
+ * <p>
+ * Both reading and writing go through the JSON one piece at a time, without
+ * holding all of it in memory.  Don't use these functions while the
+ * parameters are on an open dialog, because the parameters are given fake
+ * dialogs to find and change their values.
+ */
+public final class ParameterJson {
+    private ParameterJson() {}
+
+    /** Write the values of the parameters as JSON.
+     *
+     * @param params The parameters to write.
+     * @param out Where to write the JSON.  It is not closed or flushed.
+     * @throws IOException If <code>out</code> throws one.
+     */
+    public static void write(DParameter<?>[] params, Writer out)
+        throws IOException
+    {
+        out.write('{');
+        if (writeParams(Arrays.asList(params), out, 1)) out.write('\n');
+        out.write("}\n");
+    }
+    /** Read values written by {@link write} into the parameters.
+     * <p>
+     * Each value is given to its parameter as if it was put into a dialog, so
+     * if a value isn't allowed, {@link DParameter#getError} will say why.
+     * Parameters that aren't in the JSON keep their values, and members of
+     * the JSON that don't match any parameter are skipped.  If more than one
+     * parameter has the same label, they are matched in order.  Afterwards,
+     * the parameters that depend on others are updated and the visibility of
+     * all of the parameters is refreshed.
+     *
+     * @param params The parameters to read into.
+     * @param in Where to read the JSON from.  It is not closed.
+     * @throws IOException If <code>in</code> throws one, or if it is not
+     *                     valid JSON.
+     * @throws IllegalArgumentException If a value has the wrong type for its
+     *                                  parameter.
+     */
+    public static void read(DParameter<?>[] params, Reader in)
+        throws IOException
+    {
+        JsonReader json = new JsonReader(in);
+        readParams(Arrays.asList(params), json);
+        json.endDocument();
+        new DependencyGraph(params).update();
+        for (DParameter<?> param : params) param.refreshVisibility();
+    }
+
+    // Writes the members for params, returning false if there weren't any
+    private static boolean writeParams(Iterable<? extends DParameter<?>> params,
+                                       Writer out, int depth)
+        throws IOException
+    {
+        boolean first = true;
+        for (DParameter<?> param : params) {
+            Map<String, Object> inputs = null;
+            if (!Overrides.flattensDialog(param)) {
+                inputs = new LinkedHashMap<>();
+                param.addToDialog(new ValueDialog(Collections.emptyMap(),
+                                                  inputs));
+                // Something like an ImageParameter with no images
+                if (inputs.isEmpty()) continue;
+            }
+            first = startMember(param.label(), first, out, depth);
+            if (inputs == null) {
+                out.write('{');
+                if (writeParams(((HoldingParameter<?>)param).getAllParams(),
+                                out, depth + 1)) {
+                    newLine(out, depth);
+                }
+                out.write('}');
+            }
+            else if (inputs.size() == 1 && inputs.containsKey(param.label())) {
+                writeValue(inputs.get(param.label()), out);
+            }
+            else {
+                out.write('{');
+                boolean firstInput = true;
+                for (Map.Entry<String, Object> input : inputs.entrySet()) {
+                    firstInput = startMember(input.getKey(), firstInput, out,
+                                             depth + 1);
+                    writeValue(input.getValue(), out);
+                }
+                newLine(out, depth);
+                out.write('}');
+            }
+        }
+        return !first;
+    }
+    // Returns false, to be the new value of first
+    private static boolean startMember(String name, boolean first, Writer out,
+                                       int depth)
+        throws IOException
+    {
+        if (!first) out.write(',');
+        newLine(out, depth);
+        writeString(name, out);
+        out.write(": ");
+        return false;
+    }
+    private static void newLine(Writer out, int depth) throws IOException
+    {
+        out.write('\n');
+        for (int i = 0; i < depth; ++i) out.write("  ");
+    }
+    private static void writeValue(Object value, Writer out) throws IOException
+    {
+        if (value == null) out.write("null");
+        else if (value instanceof Boolean) out.write(value.toString());
+        else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number)value).doubleValue();
+            // JSON has no NaN or infinity
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                out.write("null");
+            }
+            else out.write(value.toString());
+        }
+        else if (value instanceof Number) out.write(value.toString());
+        else writeString(value.toString(), out);
+    }
+    private static void writeString(String value, Writer out)
+        throws IOException
+    {
+        out.write('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) out.write(String.format("\\u%04x", (int)c));
+                    else out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    private static void readParams(Iterable<? extends DParameter<?>> params,
+                                   JsonReader json)
+        throws IOException
+    {
+        // Parameters with the same label are used in order
+        HashMap<String, ArrayDeque<DParameter<?>>> byLabel = new HashMap<>();
+        for (DParameter<?> param : params) {
+            byLabel.computeIfAbsent(param.label(), l -> new ArrayDeque<>())
+                   .add(param);
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+            ArrayDeque<DParameter<?>> matches = byLabel.get(json.nextName());
+            DParameter<?> param = matches == null ? null : matches.poll();
+            if (param == null) json.skipValue();
+            else if (Overrides.flattensDialog(param)) {
+                readParams(((HoldingParameter<?>)param).getAllParams(), json);
+            }
+            else readParam(param, json);
+        }
+        json.endObject();
+    }
+    private static void readParam(DParameter<?> param, JsonReader json)
+        throws IOException
+    {
+        HashMap<String, Object> inputs = new HashMap<>();
+        if (json.peek() == '{') {
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                Object value = json.nextValue();
+                if (value != null) inputs.put(name, value);
+            }
+            json.endObject();
+        }
+        else {
+            Object value = json.nextValue();
+            if (value != null) inputs.put(param.label(), value);
+        }
+        if (inputs.isEmpty()) return;
+        param.addToDialog(new ValueDialog(inputs));
+        param.readFromDialog();
+    }
+}
@@ -0,0 +1,291 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import ij.ImagePlus;
+
+/** ParameterSnapshot is an immutable copy of the values in a tree of
+ * {@link DParameter}s.
+ * <p>
+ * The live parameters can be changed by the dialog at any time, so their values
+ * should not be read from other threads.  A snapshot, once taken, never
+ * changes, so it can be given to other threads, compared, and used as a key in
+ * a hash map.  Snapshots must be taken on the thread that owns the parameters,
+ * which is usually the thread that reads the dialog.
+ * <p>
+ * Every snapshot has the {@link label} and the value of its parameter.  For a
+ * {@link HoldingParameter}, it instead has a snapshot for each of its
+ * <em>visible</em> parameters, so that a {@link PluginParameter}'s snapshot
+ * only has the parameters of the plugin that is chosen.  A holder's own value
+ * is usually made from its parameters, and may be a new object without an
+ * <code>equals</code> every time, so it isn't kept; its snapshot's value is
+ * <code>null</code>, except for a {@link PluginParameter}, whose value is the
+ * name of the class of the chosen plugin.  Values are copied as follows:
+ * <ul>
+ * <li>Arrays are copied, and {@link getValue} returns a new copy each time.
+ * <li>Lists, such as the images of a {@link MultiImageParameter}, are copied
+ *     into lists that can't be changed.
+ * <li>Plugins from a {@link PluginParameter} are replaced with the name of
+ *     their class.
+ * <li>The images of an {@link ImageParameter} or a
+ *     {@link MultiImageParameter} are kept by their ID, or by the path of their
+ *     file if they haven't been opened, without holding on to the images.
+ *     They are only looked up, or opened, when {@link getValue} is called, so
+ *     it should be called on the thread that uses the snapshot.  A snapshot of
+ *     an image parameter means "this image", not "an image like this".
+ * <li>Everything else, such as numbers and strings, is kept as it is.
+ * </ul>
+ * <p>
+ * To make taking snapshots cheap while the dialog is changing, use
+ * {@link of(DParameter, ParameterSnapshot)} with the last snapshot.  Any part
+ * of the tree that hasn't changed is shared with the last snapshot instead of
+ * being copied, and if nothing has changed, the last snapshot itself is
+ * returned.
+ */
+public final class ParameterSnapshot {
+    /** Take a snapshot of a parameter.
+     *
+     * @param param The parameter to take a snapshot of.
+     * @return The snapshot of <code>param</code>.
+     */
+    public static ParameterSnapshot of(DParameter<?> param)
+    {
+        return of(param, null);
+    }
+    /** Take a snapshot of a parameter, sharing as much as possible with an
+     * earlier snapshot.
+     *
+     * @param param The parameter to take a snapshot of.
+     * @param previous An earlier snapshot of the same parameter, or
+     *                 <code>null</code>.
+     * @return The snapshot of <code>param</code>.  If it would be equal to
+     *         <code>previous</code>, <code>previous</code> is returned.
+     */
+    public static ParameterSnapshot of(DParameter<?> param,
+                                       ParameterSnapshot previous)
+    {
+        List<ParameterSnapshot> children = NO_CHILDREN;
+        if (param instanceof HoldingParameter) {
+            children = children(
+                ((HoldingParameter<?>)param).getAllParams(), previous);
+        }
+        return share(new ParameterSnapshot(param.label(),
+                                           capture(param),
+                                           children),
+                     previous);
+    }
+    /** Take a snapshot of several parameters at once, such as all of the
+     * parameters of a command.
+     * <p>
+     * The snapshot has an empty label and a <code>null</code> value, and it
+     * has a child for each visible parameter.
+     *
+     * @param params The parameters to take a snapshot of.
+     * @param previous An earlier snapshot of the same parameters, or
+     *                 <code>null</code>.
+     * @return The snapshot of <code>params</code>.  If it would be equal to
+     *         <code>previous</code>, <code>previous</code> is returned.
+     */
+    public static ParameterSnapshot ofAll(DParameter<?>[] params,
+                                          ParameterSnapshot previous)
+    {
+        return share(new ParameterSnapshot("", null,
+                         children(Arrays.asList(params), previous)),
+                     previous);
+    }
+
+    /** Get the label of the parameter.
+     *
+     * @return The label of the parameter, as given by
+     *         {@link DParameter#label}.
+     */
+    public String label() {return M_label;}
+    /** Get the value the parameter had when the snapshot was taken.
+     * <p>
+     * For an image parameter, this looks up the image, and opens it if it is a
+     * file that isn't open, so it shouldn't be called on the thread of the
+     * dialog.
+     *
+     * @return The value of the parameter.  If it is an array, this is a new
+     *         copy each time.  For an image parameter, it is
+     *         <code>null</code> if an image has been closed.  For a
+     *         {@link HoldingParameter}, see the class documentation.
+     */
+    public Object getValue()
+    {
+        if (M_value instanceof ImageToken) return ((ImageToken)M_value).resolve();
+        if (M_value instanceof ImageToken[]) {
+            ImageToken[] tokens = (ImageToken[])M_value;
+            ArrayList<ImagePlus> result = new ArrayList<>(tokens.length);
+            for (ImageToken token : tokens) {
+                ImagePlus image = token == null ? null : token.resolve();
+                if (image == null) return null;
+                result.add(image);
+            }
+            return result;
+        }
+        return copy(M_value);
+    }
+    /** Get the snapshots of the visible parameters inside this one.
+     *
+     * @return The snapshots of the parameters inside this one, in order.  The
+     *         list can't be changed.  If this isn't a snapshot of a
+     *         {@link HoldingParameter}, it is empty.
+     */
+    public List<ParameterSnapshot> children() {return M_children;}
+    /** Get the snapshot of a visible parameter inside this one by its label.
+     *
+     * @param label The label of the parameter.
+     * @return The first child with that label, or <code>null</code> if there
+     *         is none.
+     */
+    public ParameterSnapshot child(String label)
+    {
+        for (ParameterSnapshot child : M_children) {
+            if (child.M_label.equals(label)) return child;
+        }
+        return null;
+    }
+
+    /** Check if two snapshots have the same labels, values, and visible
+     * parameters.
+     *
+     * @param other The object to compare with.
+     * @return Whether or not <code>other</code> is an equal snapshot.
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other) return true;
+        if (!(other instanceof ParameterSnapshot)) return false;
+        ParameterSnapshot o = (ParameterSnapshot)other;
+        return M_hash == o.M_hash
+            && M_label.equals(o.M_label)
+            && Objects.deepEquals(M_value, o.M_value)
+            && M_children.equals(o.M_children);
+    }
+    /** Get the hash code of the snapshot.  It is only computed once.
+     *
+     * @return The hash code, using the labels and values of the whole tree.
+     */
+    @Override public int hashCode() {return M_hash;}
+    /** Get a string showing the labels and values of the tree, for debugging.
+     *
+     * @return A string representing this snapshot.
+     */
+    @Override
+    public String toString()
+    {
+        // deepToString is used so that arrays show their contents
+        String value = Arrays.deepToString(new Object[]{M_value});
+        StringBuilder result = new StringBuilder();
+        result.append(M_label).append('=')
+              .append(value, 1, value.length() - 1);
+        if (!M_children.isEmpty()) result.append(M_children);
+        return result.toString();
+    }
+
+    private ParameterSnapshot(String label, Object value,
+                              List<ParameterSnapshot> children)
+    {
+        M_label = label;
+        M_value = value;
+        M_children = children;
+        M_hash = 31 * (31 * label.hashCode()
+                       + Arrays.deepHashCode(new Object[]{value}))
+                 + children.hashCode();
+    }
+    private static List<ParameterSnapshot> children(
+        Iterable<? extends DParameter<?>> params, ParameterSnapshot previous)
+    {
+        ArrayList<ParameterSnapshot> result = new ArrayList<>();
+        List<ParameterSnapshot> previousChildren
+            = previous == null ? NO_CHILDREN : previous.M_children;
+        for (DParameter<?> param : params) {
+            if (!param.visible()) continue;
+            // The children usually line up with the last snapshot's, unless
+            // some visibility changed
+            ParameterSnapshot last = null;
+            int index = result.size();
+            if (index < previousChildren.size()
+                && previousChildren.get(index).M_label.equals(param.label())) {
+                last = previousChildren.get(index);
+            }
+            result.add(of(param, last));
+        }
+        if (result.isEmpty()) return NO_CHILDREN;
+        if (result.equals(previousChildren)) return previousChildren;
+        return Collections.unmodifiableList(result);
+    }
+    private static ParameterSnapshot share(ParameterSnapshot snapshot,
+                                           ParameterSnapshot previous)
+    {
+        return snapshot.equals(previous) ? previous : snapshot;
+    }
+    private static Object capture(DParameter<?> param)
+    {
+        // Images are only looked up when the snapshot is used
+        if (param instanceof ImageParameter) {
+            return ((ImageParameter)param).token();
+        }
+        if (param instanceof MultiImageParameter) {
+            return ((MultiImageParameter)param).tokens();
+        }
+        // A holder is captured by its children, except for which plugin is
+        // chosen
+        if (param instanceof PluginParameter) {
+            Object plugin = param.getValue();
+            return plugin == null ? null : plugin.getClass().getName();
+        }
+        if (param instanceof HoldingParameter) return null;
+        Object value = param.getValue();
+        if (value instanceof List) {
+            return Collections.unmodifiableList(
+                new ArrayList<Object>((Collection<?>)value));
+        }
+        return copy(value);
+    }
+    // Only arrays need to be copied once a value has been captured
+    private static Object copy(Object value)
+    {
+        if (value == null || !value.getClass().isArray()) return value;
+        int length = Array.getLength(value);
+        Object result = Array.newInstance(value.getClass().getComponentType(),
+                                          length);
+        System.arraycopy(value, 0, result, 0, length);
+        return result;
+    }
+
+    private static final List<ParameterSnapshot> NO_CHILDREN
+        = Collections.emptyList();
+
+    private final String                  M_label;
+    private final Object                  M_value;
+    private final List<ParameterSnapshot> M_children;
+    private final int                     M_hash;
+}
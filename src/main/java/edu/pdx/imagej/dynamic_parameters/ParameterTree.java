@@ -0,0 +1,163 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.ArrayList;
+
+/** ParameterTree flattens the trees of parameters in a {@link Harvester} into
+ * arrays, so that the checks the Harvester does on every change are loops over
+ * arrays instead of recursive calls through every {@link HoldingParameter}.
+ * <p>
+ * The parameters are stored in pre-order, so the parameters inside a
+ * HoldingParameter come right after it, and each one knows where its subtree
+ * ends so that invisible subtrees can be skipped.  A HoldingParameter is only
+ * flattened if it doesn't override any of the functions that are flattened;
+ * otherwise, it is treated like any other parameter so that its own versions
+ * of the functions are used.  The tree listens for parameters being added to
+ * or removed from any flattened HoldingParameter, and flattens itself again
+ * the next time it is used.
+ */
+final class ParameterTree {
+    ParameterTree(DParameter<?>[] roots)
+    {
+        M_roots = roots;
+        build();
+    }
+    // Stops listening to the HoldingParameters in the tree, for a tree that
+    // won't be used again
+    void detach()
+    {
+        for (HoldingParameter<?> holder : M_listening) {
+            holder.removeStructureListener(M_markDirty);
+        }
+        M_listening.clear();
+        M_dirty = true;
+    }
+    // Every HoldingParameter already knows if anything inside of it changed,
+    // so only the roots need to be asked
+    boolean visibilityChanged()
+    {
+        for (DParameter<?> root : M_roots) {
+            if (root.visibilityChanged()) return true;
+        }
+        return false;
+    }
+    void refreshVisibility()
+    {
+        if (M_dirty) build();
+        for (int i = 0; i < M_size; ++i) {
+            if (M_flattened[i]) {
+                ((AbstractDParameter<?>)M_nodes[i]).ownRefreshVisibility();
+            }
+            else M_nodes[i].refreshVisibility();
+        }
+    }
+    // The first error of a visible parameter, in the order of the dialog
+    String error()
+    {
+        return message(true);
+    }
+    // The first warning of a visible parameter, in the order of the dialog
+    String warning()
+    {
+        return message(false);
+    }
+    int width()
+    {
+        if (M_dirty) build();
+        int result = 0;
+        for (int i = 0; i < M_size; ++i) {
+            // A flattened HoldingParameter's width is only its parameters'
+            if (!M_flattened[i]) result = Math.max(result, M_nodes[i].width());
+        }
+        return result;
+    }
+
+    private String message(boolean error)
+    {
+        if (M_dirty) build();
+        int i = 0;
+        while (i < M_size) {
+            DParameter<?> param = M_nodes[i];
+            // The Harvester checks the top parameters even when invisible
+            if (M_depth[i] != 0 && !param.visible()) {
+                i = M_end[i];
+                continue;
+            }
+            String result;
+            if (M_flattened[i]) {
+                AbstractDParameter<?> holder = (AbstractDParameter<?>)param;
+                result = error ? holder.ownError() : holder.ownWarning();
+            }
+            else result = error ? param.getError() : param.getWarning();
+            if (result != null) return result;
+            ++i;
+        }
+        return null;
+    }
+    private void build()
+    {
+        detach();
+        ArrayList<DParameter<?>> nodes = new ArrayList<>();
+        ArrayList<Integer> depths = new ArrayList<>();
+        for (DParameter<?> root : M_roots) add(root, 0, nodes, depths);
+        M_size = nodes.size();
+        M_nodes = nodes.toArray(new DParameter<?>[M_size]);
+        M_depth = new int[M_size];
+        M_end = new int[M_size];
+        M_flattened = new boolean[M_size];
+        // Walking backwards, a subtree ends at the next node that isn't deeper
+        for (int i = M_size - 1; i >= 0; --i) {
+            M_depth[i] = depths.get(i);
+            M_flattened[i] = Overrides.flattensTree(M_nodes[i]);
+            int end = i + 1;
+            while (end < M_size && M_depth[end] > M_depth[i]) end = M_end[end];
+            M_end[i] = end;
+        }
+        M_dirty = false;
+    }
+    private void add(DParameter<?> param, int depth,
+                     ArrayList<DParameter<?>> nodes, ArrayList<Integer> depths)
+    {
+        nodes.add(param);
+        depths.add(depth);
+        if (Overrides.flattensTree(param)) {
+            HoldingParameter<?> holder = (HoldingParameter<?>)param;
+            holder.addStructureListener(M_markDirty);
+            M_listening.add(holder);
+            for (DParameter<?> child : holder.getAllParams()) {
+                add(child, depth + 1, nodes, depths);
+            }
+        }
+    }
+    private final DParameter<?>[] M_roots;
+    private final Runnable        M_markDirty = () -> M_dirty = true;
+    // Every HoldingParameter that M_markDirty was given to
+    private final ArrayList<HoldingParameter<?>> M_listening
+        = new ArrayList<>();
+    private boolean               M_dirty;
+    private int                   M_size;
+    // These are all indexed by position in pre-order
+    private DParameter<?>[]       M_nodes;
+    private int[]                 M_depth;
+    // One past the last parameter inside each parameter
+    private int[]                 M_end;
+    private boolean[]             M_flattened;
+}
@@ -84,6 +84,8 @@ public class PluginParameter<T extends ParameterPlugin>
             M_choice = addParameter(
                 new ChoiceParameter(label(), choices, choices[0])
             );
+            // The visibilities only need to change when the choice does
+            M_choice.addValueListener((oldValue, newValue) -> setVisibilities());
         }
         for (Entry<String, T> entry : M_plugins.entrySet()) {
             if (entry.getValue().param() != null) {
@@ -93,20 +95,6 @@ public class PluginParameter<T extends ParameterPlugin>
         }
         setVisibilities();
     }
-    /** {@inheritDoc} */
-    @Override
-    public void readFromDialog()
-    {
-        super.readFromDialog();
-        setVisibilities();
-    }
-    /** {@inheritDoc} */
-    @Override
-    public void readFromPrefs(Class<?> c, String name)
-    {
-        super.readFromPrefs(c, name);
-        setVisibilities();
-    }
     /** Get the plugin that is currently selected. */
     @Override
     public T getValue()
@@ -116,6 +104,37 @@ public class PluginParameter<T extends ParameterPlugin>
         else return M_plugins.get(M_choice.getValue());
     }
 
+    /** Select a plugin.
+     * <p>
+     * The plugin that is selected is the one with the same class as
+     * <code>value</code>, so a new instance of the plugin can be passed in.
+     * The selected plugin keeps its own parameters, which can be set on their
+     * own.
+     *
+     * @param value A plugin with the class of the plugin to select.
+     * @throws IllegalArgumentException If <code>value</code> is
+     *                                  <code>null</code>, or if there is no
+     *                                  enabled plugin with its class.
+     */
+    @Override
+    public void setValue(T value)
+    {
+        if (value == null) {
+            throw new IllegalArgumentException("The value of "
+                + displayLabel() + " can't be null.");
+        }
+        for (Entry<String, T> entry : M_plugins.entrySet()) {
+            if (entry.getValue().getClass() == value.getClass()) {
+                // If there's only one choice, it's already selected
+                if (M_choice != null) M_choice.setValue(entry.getKey());
+                return;
+            }
+        }
+        throw new IllegalArgumentException("The plugin "
+            + value.getClass().getName() + " can't be chosen for "
+            + displayLabel() + ".");
+    }
+
     /** Get all of the plugins that are being selected from.
      *
      * @return An Iterable that iterates through all of the plugins.
@@ -0,0 +1,88 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/** PrefixIndex sorts a list of strings once so that all of the strings
+ * starting with some prefix can be found with a binary search.  The matches
+ * always form one contiguous range of the sorted order, so nothing needs to be
+ * copied to look at them.  Prefixes are matched ignoring case.
+ */
+final class PrefixIndex {
+    // items is copied, so that an index doesn't keep the array alive
+    PrefixIndex(String[] items)
+    {
+        M_items = items.clone();
+        Integer[] order = new Integer[items.length];
+        for (int i = 0; i < order.length; ++i) order[i] = i;
+        Comparator<Integer> comparator = (a, b) ->
+            String.CASE_INSENSITIVE_ORDER.compare(M_items[a], M_items[b]);
+        Arrays.sort(order, comparator);
+        M_sorted = new int[order.length];
+        for (int i = 0; i < order.length; ++i) M_sorted[i] = order[i];
+    }
+    // The first position in sorted order of a string starting with prefix
+    int start(String prefix)
+    {
+        return search(prefix, false);
+    }
+    // One past the last position in sorted order of a string starting with
+    // prefix
+    int end(String prefix)
+    {
+        return search(prefix, true);
+    }
+    // The string at a position in sorted order
+    String get(int position) {return M_items[M_sorted[position]];}
+    // The index in the original array of a position in sorted order
+    int originalIndex(int position) {return M_sorted[position];}
+    int size() {return M_sorted.length;}
+
+    // If after is false, finds the first position not less than the prefix.
+    // If it is true, finds the first position greater than the prefix.
+    private int search(String prefix, boolean after)
+    {
+        int low = 0;
+        int high = M_sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int compare = comparePrefix(get(mid), prefix);
+            if (compare < 0 || (after && compare == 0)) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+    private static int comparePrefix(String item, String prefix)
+    {
+        int length = Math.min(item.length(), prefix.length());
+        for (int i = 0; i < length; ++i) {
+            char a = Character.toLowerCase(Character.toUpperCase(item.charAt(i)));
+            char b = Character.toLowerCase(Character.toUpperCase(prefix.charAt(i)));
+            if (a != b) return a - b;
+        }
+        // A string shorter than the prefix comes before it
+        return item.length() < prefix.length() ? -1 : 0;
+    }
+
+    private final String[] M_items;
+    private final int[]    M_sorted;
+}
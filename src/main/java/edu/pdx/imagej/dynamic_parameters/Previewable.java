@@ -0,0 +1,54 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+/** Previewable is an interface for commands that can show a preview while
+ * their dialog is open.
+ * <p>
+ * If a command implements this interface, the {@link DynamicPreprocessor}
+ * turns on preview for its dialog.  Whenever the parameters change and have no
+ * errors, {@link preview} is called on a background thread with a
+ * {@link ParameterSnapshot} of the command's {@link DParameter}s, which has a
+ * child for each of them.  The live parameters must not be used in
+ * <code>preview</code>, because the dialog can still be changing them.
+ * <p>
+ * When the parameters change again, any preview still running is interrupted,
+ * because its result is no longer wanted.  Long previews should check
+ * <code>Thread.interrupted()</code> every so often and stop if it is
+ * <code>true</code>.  Previews are never run at the same time as each other,
+ * and a new one is started at most once every {@link previewInterval}
+ * milliseconds, no matter how fast the parameters are changed.
+ */
+public interface Previewable {
+    /** Show a preview for some values of the parameters.
+     *
+     * @param values A snapshot of the parameters of the command.
+     * @throws InterruptedException If the preview was interrupted because the
+     *                              values are no longer current.
+     */
+    void preview(ParameterSnapshot values) throws InterruptedException;
+    /** The shortest time between the start of two previews.
+     * <p>
+     * The default is 250 milliseconds.
+     *
+     * @return The time between previews, in milliseconds.
+     */
+    default long previewInterval() {return 250;}
+}
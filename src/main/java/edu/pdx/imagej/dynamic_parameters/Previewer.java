@@ -0,0 +1,87 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import ij.IJ;
+
+/** Previewer runs a {@link Previewable}'s previews for a {@link Harvester}.
+ * <p>
+ * {@link submit} is only called on the event dispatch thread, and it never
+ * waits for anything.  The previews are run one at a time on one background
+ * thread.  Submitting new values cancels the preview that is waiting to start
+ * and interrupts the one that is running, and a preview is only started once
+ * every {@link Previewable#previewInterval}, so that quick changes only run
+ * the last values.
+ */
+final class Previewer {
+    Previewer(Previewable preview)
+    {
+        M_preview = preview;
+        M_interval = TimeUnit.MILLISECONDS.toNanos(preview.previewInterval());
+        M_executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread result = new Thread(runnable, "Dynamic Parameters preview");
+            result.setDaemon(true);
+            return result;
+        });
+        M_lastStart = System.nanoTime() - M_interval;
+    }
+    void submit(ParameterSnapshot values)
+    {
+        if (values.equals(M_last)) return;
+        M_last = values;
+        if (M_future != null) M_future.cancel(true);
+        long wait = M_lastStart + M_interval - System.nanoTime();
+        M_future = M_executor.schedule(() -> run(values), Math.max(wait, 0),
+                                       TimeUnit.NANOSECONDS);
+    }
+    void shutdown()
+    {
+        if (M_future != null) M_future.cancel(true);
+        M_executor.shutdownNow();
+    }
+
+    private void run(ParameterSnapshot values)
+    {
+        M_lastStart = System.nanoTime();
+        try {
+            M_preview.preview(values);
+        }
+        catch (InterruptedException e) {
+            // A newer preview has been submitted, so this one can be dropped
+        }
+        catch (RuntimeException e) {
+            if (!Thread.currentThread().isInterrupted()) IJ.handleException(e);
+        }
+    }
+
+    private final Previewable              M_preview;
+    private final long                     M_interval;
+    private final ScheduledExecutorService M_executor;
+    // These are only used on the event dispatch thread
+    private ParameterSnapshot              M_last;
+    private Future<?>                      M_future;
+    // This is written by the preview thread
+    private volatile long                  M_lastStart;
+}
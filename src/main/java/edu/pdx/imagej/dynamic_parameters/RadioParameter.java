@@ -36,26 +36,37 @@ public class RadioParameter extends AbstractDParameter<String> {
      * @param items The choices that can be picked from.
      * @param rows The number of rows to have.
      * @param columns The number of columns to have.
+     * @throws IllegalArgumentException If <code>items</code> is empty.
      */
     public RadioParameter(String label, String[] items, int rows, int columns)
-        {this(label, items, items[0], rows, columns);}
+        {this(label, items, items.length == 0 ? null : items[0], rows, columns);}
     /** Construct the RadioParameter with its label, an array of choices, and a
      * default value.
+     * <p>
+     * The default value must be one of the choices, because the value of this
+     * parameter is always one of the choices.
      *
      * @param label The label for this parameter to be used on the dialog.
      * @param items The choices that can be picked from.
      * @param defaultItem The starting string to be choosing.
      * @param rows The number of rows to have.
      * @param columns The number of columns to have.
+     * @throws IllegalArgumentException If <code>items</code> is empty, or
+     *                                  <code>defaultItem</code> is not one
+     *                                  of them.
      */
     public RadioParameter(String label, String[] items, String defaultItem,
                           int rows, int columns)
     {
         super(label);
         M_label = label;
-        M_items = items;
-        M_value = defaultItem;
-        M_defaultValue = defaultItem;
+        M_items = new ChoiceIndex(items);
+        M_defaultIndex = M_items.indexOf(defaultItem);
+        if (M_defaultIndex == -1) {
+            throw new IllegalArgumentException("The default \"" + defaultItem
+                + "\" is not a choice for " + displayLabel() + ".");
+        }
+        M_index = M_defaultIndex;
         M_rows = rows;
         M_columns = columns;
     }
@@ -64,46 +75,65 @@ public class RadioParameter extends AbstractDParameter<String> {
      * @return The string from this parameter
      */
     @Override
-    public String getValue() {return M_value;}
+    public String getValue() {return M_items.get(M_index);}
+    /** Sets the string in this parameter.
+     *
+     * @param value The new value, which must be one of the choices.
+     * @throws IllegalArgumentException If <code>value</code> is not one of
+     *                                  the choices.
+     */
+    @Override
+    public void setValue(String value)
+    {
+        int index = M_items.indexOf(value);
+        if (index == -1) {
+            throw new IllegalArgumentException("\"" + value
+                + "\" is not a choice for " + displayLabel() + ".");
+        }
+        M_index = index;
+        notifyIfChanged();
+    }
 
     /** Adds this parameter to the dialog.
      */
     @Override
     public void addToDialog(DPDialog dialog)
     {
-        M_supplier = dialog.addRadioButtons(M_label, M_value, M_items,
-                                              M_rows, M_columns);
+        M_supplier = dialog.addRadioButtons(M_label, getValue(),
+                                            M_items.choices(),
+                                            M_rows, M_columns);
     }
     /** Reads this parameter from the dialog.
      */
     @Override
     public void readFromDialog()
     {
-        M_value = M_supplier.get();
+        M_index = M_items.indexOf(M_supplier.get());
+        notifyIfChanged();
     }
     /** Save this parameter to {@link prefs}
      */
     @Override
     public void saveToPrefs(Class<?> c, String name)
-        {prefs().put(c, name, M_value);}
+        {prefs().put(c, name, getValue());}
     /** Read this parameter from {@link prefs}
      */
     @Override
     public void readFromPrefs(Class<?> c, String name)
     {
-        M_value = prefs().get(c, name, M_value);
+        String value = prefs().get(c, name);
+        if (value == null) return;
         // The prefs can get funky and return something that is not a choice.
         // If that happens, reset to the default value.
-        for (String s : M_items) {
-            if (s.equals(M_value)) return;
-        }
-        M_value = M_defaultValue;
+        M_index = M_items.indexOf(value);
+        if (M_index == -1) M_index = M_defaultIndex;
+        notifyIfChanged();
     }
 
     private String M_label;
-    private String[] M_items;
-    private String M_value;
-    private String M_defaultValue;
+    private ChoiceIndex M_items;
+    private int M_index;
+    private int M_defaultIndex;
     int M_rows;
     int M_columns;
     private Supplier<String> M_supplier;
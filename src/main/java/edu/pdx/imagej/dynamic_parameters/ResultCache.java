@@ -0,0 +1,200 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import ij.ImagePlus;
+
+/** ResultCache remembers the results of a command for the values of its
+ * parameters, so that going back to values that were used before doesn't need
+ * to compute anything.
+ * <p>
+ * Results are keyed by {@link ParameterSnapshot}, so two sets of values that
+ * are equal use the same result.  The cache is bounded both by the number of
+ * results and by an estimate of the memory they use, and when either is too
+ * large, the results that were used least recently are thrown away.  A result
+ * that is larger than the whole cache is never kept.
+ * <p>
+ * A command usually keeps one cache in a static field and uses
+ * {@link computeIfAbsent} for both its {@link Previewable#preview preview} and
+ * its <code>run</code> method.  To use the same keys in both, implement
+ * {@link SnapshotReceiver} to get the snapshot of the values that the dialog
+ * ended with, which is made in the same way as the snapshots given to the
+ * preview:
+ *
+ * <pre>
+ * {@code
+ * private static final ResultCache<ImagePlus> S_cache
+ *     = new ResultCache<>(16, 256L << 20, ResultCache::imageBytes);
+ * public void preview(ParameterSnapshot values)
+ * {
+ *     S_cache.computeIfAbsent(values, this::compute).show();
+ * }
+ * public void receiveSnapshot(ParameterSnapshot values) {M_values = values;}
+ * public void run()
+ * {
+ *     S_cache.computeIfAbsent(M_values, this::compute).show();
+ * }
+ * }
+ * </pre>
+ * <p>
+ * All functions are thread safe.
+ *
+ * @param <R> The type of the results.
+ */
+public class ResultCache<R> {
+    /** Create a cache that only limits the number of results.
+     *
+     * @param maxEntries The largest number of results to keep.
+     */
+    public ResultCache(int maxEntries)
+    {
+        this(maxEntries, Long.MAX_VALUE, result -> 0);
+    }
+    /** Create a cache that limits the number of results and their size.
+     *
+     * @param maxEntries The largest number of results to keep.
+     * @param maxBytes The largest total size of the results to keep.
+     * @param weigher A function estimating the size of a result in bytes, such
+     *                as {@link imageBytes}.  It is called once for each result
+     *                when it is put in the cache.
+     */
+    public ResultCache(int maxEntries, long maxBytes,
+                       ToLongFunction<? super R> weigher)
+    {
+        M_maxEntries = maxEntries;
+        M_maxBytes = maxBytes;
+        M_weigher = weigher;
+    }
+    /** Get the result for some values.
+     *
+     * @param values The values of the parameters.
+     * @return The result for <code>values</code>, or <code>null</code> if it
+     *         isn't in the cache.
+     */
+    public synchronized R get(ParameterSnapshot values)
+    {
+        Entry<R> entry = M_entries.get(values);
+        return entry == null ? null : entry.result;
+    }
+    /** Remember the result for some values.
+     *
+     * @param values The values of the parameters.
+     * @param result The result for <code>values</code>.  <code>null</code> is
+     *               not remembered.
+     */
+    public void put(ParameterSnapshot values, R result)
+    {
+        if (result == null) return;
+        long bytes = M_weigher.applyAsLong(result);
+        synchronized (this) {
+            Entry<R> old = M_entries.remove(values);
+            if (old != null) M_bytes -= old.bytes;
+            if (bytes > M_maxBytes) return;
+            M_entries.put(values, new Entry<>(result, bytes));
+            M_bytes += bytes;
+            Iterator<Entry<R>> it = M_entries.values().iterator();
+            while (M_entries.size() > M_maxEntries || M_bytes > M_maxBytes) {
+                M_bytes -= it.next().bytes;
+                it.remove();
+            }
+        }
+    }
+    /** Get the result for some values, computing and remembering it if it
+     * isn't in the cache.
+     * <p>
+     * <code>compute</code> is called without holding any lock, so if two
+     * threads ask for the same values at once, both might compute the result.
+     *
+     * @param values The values of the parameters.
+     * @param compute The function computing a result from the values.
+     * @return The result for <code>values</code>.
+     */
+    public R computeIfAbsent(ParameterSnapshot values,
+                             Function<? super ParameterSnapshot, ? extends R> compute)
+    {
+        R result = get(values);
+        if (result == null) {
+            result = compute.apply(values);
+            put(values, result);
+        }
+        return result;
+    }
+    /** Forget the result for some values.
+     *
+     * @param values The values of the parameters.
+     */
+    public synchronized void remove(ParameterSnapshot values)
+    {
+        Entry<R> old = M_entries.remove(values);
+        if (old != null) M_bytes -= old.bytes;
+    }
+    /** Forget every result. */
+    public synchronized void clear()
+    {
+        M_entries.clear();
+        M_bytes = 0;
+    }
+    /** Get the number of results in the cache.
+     *
+     * @return The number of results.
+     */
+    public synchronized int size() {return M_entries.size();}
+    /** Get the estimated size of the results in the cache.
+     *
+     * @return The total size of the results, in bytes.
+     */
+    public synchronized long bytes() {return M_bytes;}
+
+    /** Estimate the size of an image, for use as a weigher.
+     *
+     * @param image The image.
+     * @return The size of the pixels of every plane of the image, in bytes.
+     */
+    public static long imageBytes(ImagePlus image)
+    {
+        int bitDepth = image.getBitDepth();
+        long bytesPerPixel = bitDepth == 24 ? 4 : bitDepth / 8;
+        return (long)image.getWidth() * image.getHeight()
+            * image.getStackSize() * bytesPerPixel;
+    }
+
+    private static class Entry<R> {
+        Entry(R result, long bytes)
+        {
+            this.result = result;
+            this.bytes = bytes;
+        }
+        final R    result;
+        final long bytes;
+    }
+
+    private final int                       M_maxEntries;
+    private final long                      M_maxBytes;
+    private final ToLongFunction<? super R> M_weigher;
+    // Access order makes the first entry the least recently used one
+    private final LinkedHashMap<ParameterSnapshot, Entry<R>> M_entries
+        = new LinkedHashMap<>(16, 0.75f, true);
+    private long                            M_bytes = 0;
+}
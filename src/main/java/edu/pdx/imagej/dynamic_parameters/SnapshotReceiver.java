@@ -0,0 +1,38 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+/** SnapshotReceiver is an interface for commands that want a
+ * {@link ParameterSnapshot} of their parameters before they run.
+ * <p>
+ * If a command implements this interface, the {@link DynamicPreprocessor}
+ * gives it a snapshot of all of its {@link DParameter}s once they have been
+ * populated.  The snapshot is made in the same way as the snapshots given to
+ * {@link Previewable#preview}, so the two can be compared, and they can be
+ * used as keys for the same {@link ResultCache}.
+ */
+public interface SnapshotReceiver {
+    /** Receive the snapshot of the values the command will run with.
+     *
+     * @param values A snapshot of the parameters of the command, which has a
+     *               child for each of them.
+     */
+    void receiveSnapshot(ParameterSnapshot values);
+}
@@ -0,0 +1,439 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.scijava.Cancelable;
+import org.scijava.Context;
+import org.scijava.module.Module;
+import org.scijava.module.ModuleInfo;
+import org.scijava.module.ModuleRunner;
+import org.scijava.module.ModuleService;
+import org.scijava.module.process.PostprocessorPlugin;
+import org.scijava.module.process.PreprocessorPlugin;
+import org.scijava.plugin.PluginService;
+
+/** Sweep runs a command many times over a set of values for its
+ * {@link DParameter}s, without showing any dialogs.
+ * <p>
+ * The parameters to change are chosen by their path, as in
+ * {@link Harvester#getParameter}, or by their label alone if no other
+ * parameter has the same label, and each one is given either a range or a set
+ * of values.  For example, to try every
+ * combination of three thresholds and two algorithms chosen with a
+ * {@link PluginParameter} labeled "Algorithm":
+ *
+ * <pre>
+ * {@code
+ * Sweep sweep = new Sweep(context, info)
+ *     .steps("Threshold", 0.1, 0.3, 3)
+ *     .values("Algorithm", "Fast", "Accurate");
+ * List<Module> results = sweep.run(sweep.cartesian());
+ * }
+ * </pre>
+ * <p>
+ * Each point of the sweep is a map from path or label to value, and the points
+ * can be made using {@link cartesian}, {@link random}, or
+ * {@link latinHypercube}.  Every parameter that is not part of the sweep uses
+ * the value it has in prefs.  Numbers can be given as any <code>Number</code>,
+ * and choices are given by the string that is chosen.  A
+ * {@link PluginParameter}'s choice uses the path of the PluginParameter and
+ * the names of the plugins, and the parameters of every plugin can be swept
+ * as well, even though they are only used when that plugin is chosen.
+ * <p>
+ * {@link run} runs each point in its own module, using the normal
+ * preprocessors except that the {@link DynamicPreprocessor} uses the values of
+ * the point instead of showing a dialog.  Postprocessors are not run, so the
+ * outputs are not displayed, and they should instead be read from the modules
+ * that are returned.  If a command has inputs that are not DParameters, set
+ * them with {@link input} so that nothing needs to ask for them.
+ */
+public class Sweep {
+    /** Create a sweep over a command.
+     *
+     * @param context The context to create and run the modules in.
+     * @param info The command to run.
+     */
+    public Sweep(Context context, ModuleInfo info)
+    {
+        M_context = context;
+        M_info = info;
+        M_moduleService = context.getService(ModuleService.class);
+        M_pluginService = context.getService(PluginService.class);
+    }
+    /** Sweep a floating point parameter over evenly spaced values.
+     * <p>
+     * {@link cartesian} uses the <code>steps</code> values from
+     * <code>min</code> to <code>max</code>, including both ends, while
+     * {@link random} and {@link latinHypercube} can use any value between
+     * <code>min</code> and <code>max</code>.
+     *
+     * @param label The path or label of the parameter.
+     * @param min The first value.
+     * @param max The last value.
+     * @param steps The number of values to use.  It must be positive.
+     * @return This Sweep, so that calls can be chained.
+     */
+    public Sweep steps(String label, double min, double max, int steps)
+    {
+        if (steps < 1) {
+            throw new IllegalArgumentException("A sweep over "
+                + DParameter.displayLabel(label)
+                + " must have at least one step.");
+        }
+        M_axes.add(new DoubleRange(label, min, max, steps));
+        return this;
+    }
+    /** Sweep an integer parameter over every value from <code>min</code> to
+     * <code>max</code>, including both ends.
+     *
+     * @param label The path or label of the parameter.
+     * @param min The first value.
+     * @param max The last value.
+     * @return This Sweep, so that calls can be chained.
+     */
+    public Sweep range(String label, int min, int max)
+    {
+        return stepSize(label, min, max, 1);
+    }
+    /** Sweep an integer parameter from <code>min</code> to <code>max</code>,
+     * going up by <code>step</code> each time.
+     *
+     * @param label The path or label of the parameter.
+     * @param min The first value.
+     * @param max The largest value that can be used.  It is only used if it is
+     *            a multiple of <code>step</code> above <code>min</code>.
+     * @param step How much to go up by each time.  It must be positive.
+     * @return This Sweep, so that calls can be chained.
+     */
+    public Sweep stepSize(String label, int min, int max, int step)
+    {
+        if (step < 1 || max < min) {
+            throw new IllegalArgumentException("A sweep over "
+                + DParameter.displayLabel(label) + " must go up from " + min
+                + " to " + max + " by a positive step.");
+        }
+        M_axes.add(new IntRange(label, min, max, step));
+        return this;
+    }
+    /** Sweep a parameter over a set of values.
+     * <p>
+     * This works for any type of parameter, but it is mainly meant for
+     * choices, like {@link ChoiceParameter} and {@link PluginParameter}.
+     *
+     * @param label The path or label of the parameter.
+     * @param values The values to use.  There must be at least one.
+     * @return This Sweep, so that calls can be chained.
+     */
+    public Sweep values(String label, Object... values)
+    {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("A sweep over "
+                + DParameter.displayLabel(label)
+                + " must have at least one value.");
+        }
+        M_axes.add(new ValueSet(label, values.clone()));
+        return this;
+    }
+    /** Set an input of the command that is not a {@link DParameter}.
+     * <p>
+     * The input has the same value for every point in the sweep.
+     *
+     * @param name The name of the input, which is usually the name of the
+     *             field.
+     * @param value The value of the input.
+     * @return This Sweep, so that calls can be chained.
+     */
+    public Sweep input(String name, Object value)
+    {
+        M_inputs.put(name, value);
+        return this;
+    }
+
+    /** Make every combination of the values being swept.
+     * <p>
+     * The first parameter added to the sweep changes the slowest, and the
+     * last one changes the fastest.
+     *
+     * @return The points of the sweep.
+     */
+    public List<Map<String, Object>> cartesian()
+    {
+        int count = 1;
+        for (Axis axis : M_axes) count = Math.multiplyExact(count, axis.size());
+        ArrayList<Map<String, Object>> result = new ArrayList<>(count);
+        int[] indices = new int[M_axes.size()];
+        for (int i = 0; i < count; ++i) {
+            LinkedHashMap<String, Object> point = new LinkedHashMap<>();
+            for (int j = 0; j < indices.length; ++j) {
+                Axis axis = M_axes.get(j);
+                point.put(axis.label, axis.get(indices[j]));
+            }
+            result.add(Collections.unmodifiableMap(point));
+            for (int j = indices.length - 1; j >= 0; --j) {
+                if (++indices[j] < M_axes.get(j).size()) break;
+                indices[j] = 0;
+            }
+        }
+        return result;
+    }
+    /** Make points with every value chosen at random.
+     *
+     * @param count The number of points to make.
+     * @param seed The seed for the random number generator, so that the same
+     *             points can be made again.
+     * @return The points of the sweep.
+     */
+    public List<Map<String, Object>> random(int count, long seed)
+    {
+        Random random = new Random(seed);
+        ArrayList<Map<String, Object>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            LinkedHashMap<String, Object> point = new LinkedHashMap<>();
+            for (Axis axis : M_axes) {
+                point.put(axis.label, axis.sample(random.nextDouble()));
+            }
+            result.add(Collections.unmodifiableMap(point));
+        }
+        return result;
+    }
+    /** Make points using Latin hypercube sampling.
+     * <p>
+     * Each parameter's values are split into <code>count</code> equal parts,
+     * and every part is used by exactly one point.  This spreads the points
+     * out much more evenly than {@link random} does, without needing every
+     * combination like {@link cartesian}.
+     *
+     * @param count The number of points to make.
+     * @param seed The seed for the random number generator, so that the same
+     *             points can be made again.
+     * @return The points of the sweep.
+     */
+    public List<Map<String, Object>> latinHypercube(int count, long seed)
+    {
+        Random random = new Random(seed);
+        ArrayList<LinkedHashMap<String, Object>> points = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) points.add(new LinkedHashMap<>());
+        int[] order = new int[count];
+        for (Axis axis : M_axes) {
+            // Shuffle which part each point uses
+            for (int i = 0; i < count; ++i) order[i] = i;
+            for (int i = count - 1; i > 0; --i) {
+                int j = random.nextInt(i + 1);
+                int temp = order[i];
+                order[i] = order[j];
+                order[j] = temp;
+            }
+            for (int i = 0; i < count; ++i) {
+                double u = (order[i] + random.nextDouble()) / count;
+                points.get(i).put(axis.label, axis.sample(u));
+            }
+        }
+        ArrayList<Map<String, Object>> result = new ArrayList<>(count);
+        for (LinkedHashMap<String, Object> point : points) {
+            result.add(Collections.unmodifiableMap(point));
+        }
+        return result;
+    }
+
+    /** Run the command for every point, using one thread per processor.
+     *
+     * @param points The points to run, usually made by {@link cartesian},
+     *               {@link random}, or {@link latinHypercube}.
+     * @return The modules that were run, in the same order as
+     *         <code>points</code>.
+     * @throws InterruptedException If this thread was interrupted while
+     *                              waiting for the modules.
+     * @throws ExecutionException If any point could not be run.  The cause is
+     *                            the first point to fail.
+     */
+    public List<Module> run(List<Map<String, Object>> points)
+        throws InterruptedException, ExecutionException
+    {
+        return run(points, Runtime.getRuntime().availableProcessors());
+    }
+    /** Run the command for every point, using at most <code>threads</code>
+     * threads at once.
+     * <p>
+     * As soon as any point fails, the points that have not started yet are
+     * not run, and the ones that are running are interrupted.
+     * A point fails if any parameter has an error with its values, if
+     * anything else cancels the module, such as another preprocessor, or if
+     * the command itself throws an exception.
+     *
+     * @param points The points to run, usually made by {@link cartesian},
+     *               {@link random}, or {@link latinHypercube}.
+     * @param threads The largest number of modules to run at once.
+     * @return The modules that were run, in the same order as
+     *         <code>points</code>.
+     * @throws InterruptedException If this thread was interrupted while
+     *                              waiting for the modules.
+     * @throws ExecutionException If any point could not be run.  The cause is
+     *                            the first point to fail.
+     */
+    public List<Module> run(List<Map<String, Object>> points, int threads)
+        throws InterruptedException, ExecutionException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<Module> completion
+            = new ExecutorCompletionService<>(executor);
+        try {
+            ArrayList<Future<Module>> futures = new ArrayList<>(points.size());
+            for (Map<String, Object> point : points) {
+                futures.add(completion.submit(() -> runPoint(point)));
+            }
+            // Waiting in the order the points finish means that the first
+            // failure stops everything else right away
+            for (int i = 0; i < futures.size(); ++i) completion.take().get();
+            ArrayList<Module> result = new ArrayList<>(points.size());
+            for (Future<Module> future : futures) result.add(future.get());
+            return result;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Module runPoint(Map<String, Object> point) throws Exception
+    {
+        Module module = M_moduleService.createModule(M_info);
+        for (Map.Entry<String, Object> input : M_inputs.entrySet()) {
+            module.setInput(input.getKey(), input.getValue());
+            module.resolveInput(input.getKey());
+        }
+        DynamicPreprocessor dynamic = new DynamicPreprocessor();
+        M_context.inject(dynamic);
+        dynamic.setValues(point);
+        List<PreprocessorPlugin> preprocessors
+            = M_pluginService.createInstancesOfType(PreprocessorPlugin.class);
+        for (int i = 0; i < preprocessors.size(); ++i) {
+            if (preprocessors.get(i) instanceof DynamicPreprocessor) {
+                preprocessors.set(i, dynamic);
+            }
+        }
+        new ModuleRunner(M_context, module, preprocessors,
+                         Collections.<PostprocessorPlugin>emptyList()).run();
+        if (dynamic.isCanceled()) {
+            throw new IllegalArgumentException(dynamic.getCancelReason());
+        }
+        Cancelable canceled = canceled(module, preprocessors);
+        if (canceled != null) {
+            String reason = canceled.getCancelReason();
+            throw new CancellationException(reason == null
+                ? "The command " + M_info.getTitle() + " was canceled."
+                : reason);
+        }
+        return module;
+    }
+    // Whatever canceled the module, or null if nothing did
+    private static Cancelable canceled(Module module,
+                                       List<PreprocessorPlugin> preprocessors)
+    {
+        for (PreprocessorPlugin preprocessor : preprocessors) {
+            if (preprocessor.isCanceled()) return preprocessor;
+        }
+        if (module instanceof Cancelable
+                && ((Cancelable)module).isCanceled()) {
+            return (Cancelable)module;
+        }
+        Object command = module.getDelegateObject();
+        if (command instanceof Cancelable
+                && ((Cancelable)command).isCanceled()) {
+            return (Cancelable)command;
+        }
+        return null;
+    }
+
+    private static abstract class Axis {
+        Axis(String label) {this.label = label;}
+        // The number of values used by cartesian
+        abstract int size();
+        abstract Object get(int index);
+        // Get a value from anywhere in the range, where u is in [0, 1)
+        abstract Object sample(double u);
+        final String label;
+    }
+    private static class DoubleRange extends Axis {
+        DoubleRange(String label, double min, double max, int steps)
+        {
+            super(label);
+            M_min = min;
+            M_max = max;
+            M_steps = steps;
+        }
+        @Override int size() {return M_steps;}
+        @Override Object get(int index)
+        {
+            if (M_steps == 1) return M_min;
+            return M_min + (M_max - M_min) * index / (M_steps - 1);
+        }
+        @Override Object sample(double u) {return M_min + (M_max - M_min) * u;}
+        private final double M_min;
+        private final double M_max;
+        private final int    M_steps;
+    }
+    private static class IntRange extends Axis {
+        IntRange(String label, int min, int max, int step)
+        {
+            super(label);
+            M_min = min;
+            M_step = step;
+            M_size = (int)(((long)max - min) / step + 1);
+        }
+        @Override int size() {return M_size;}
+        @Override Object get(int index) {return M_min + index * M_step;}
+        @Override Object sample(double u) {return get((int)(u * M_size));}
+        private final int M_min;
+        private final int M_step;
+        private final int M_size;
+    }
+    private static class ValueSet extends Axis {
+        ValueSet(String label, Object[] values)
+        {
+            super(label);
+            M_values = values;
+        }
+        @Override int size() {return M_values.length;}
+        @Override Object get(int index) {return M_values[index];}
+        @Override Object sample(double u)
+            {return M_values[(int)(u * M_values.length)];}
+        private final Object[] M_values;
+    }
+
+    private final Context         M_context;
+    private final ModuleInfo      M_info;
+    private final ModuleService   M_moduleService;
+    private final PluginService   M_pluginService;
+    private final ArrayList<Axis> M_axes = new ArrayList<>();
+    private final LinkedHashMap<String, Object> M_inputs = new LinkedHashMap<>();
+}
@@ -46,7 +46,8 @@ import java.awt.Label;
  * added one parameter, the index should be zero.  If you called
  * {@link addInteger addInteger} three times, to get the last one the index
  * should be two.  Each type of index is tracked separately.  However, choices,
- * radio boxes, and text boxes are considered identical and they share indices.
+ * searchable choices, radio boxes, and text boxes are considered identical and
+ * they share indices.
  */
 public class TestDialog implements DPDialog {
     /** {@inheritDoc} */ @Override
@@ -64,7 +65,7 @@ public class TestDialog implements DPDialog {
     {
         int index = -1;
         for (int i = 0; i < choices.length; ++i) {
-            if (choices[i].equals(index)) {
+            if (choices[i].equals(defaultValue)) {
                 index = i;
                 break;
             }
@@ -72,13 +73,38 @@ public class TestDialog implements DPDialog {
         return add(index, M_stringChoices);
     }
     /** {@inheritDoc} */ @Override
-    public DialogNumber<Double> addDouble(String label, double defaultValue,
-                                           String units, int decimals)
-        {return addNumber(defaultValue, M_doubles);}
+    public Supplier<String> addSearchableChoice(String label,
+                                                 String defaultValue,
+                                                 String[] choices)
+        {return add(defaultValue, M_strings);}
     /** {@inheritDoc} */ @Override
-    public DialogNumber<Integer> addInteger(String label, int defaultValue,
-                                             String units)
-        {return addNumber(defaultValue, M_integers);}
+    public DialogDouble addDouble(String label, double defaultValue,
+                                  String units, int decimals)
+    {
+        TestDialogNumber.DoubleNumber num =
+            new TestDialogNumber.DoubleNumber();
+        num.value = defaultValue;
+        M_doubles.add(num);
+        return num;
+    }
+    /** {@inheritDoc} */ @Override
+    public DialogInteger addInteger(String label, int defaultValue,
+                                    String units)
+    {
+        TestDialogNumber.IntegerNumber num =
+            new TestDialogNumber.IntegerNumber();
+        num.value = defaultValue;
+        M_integers.add(num);
+        return num;
+    }
+    /** {@inheritDoc} */ @Override
+    public DialogLong addLong(String label, long defaultValue, String units)
+    {
+        TestDialogNumber.LongNumber num = new TestDialogNumber.LongNumber();
+        num.value = defaultValue;
+        M_longs.add(num);
+        return num;
+    }
     /** Does nothing.  Because TestDialog doesn't actually do anything
      * gui-related, this function does nothing.
      *
@@ -129,7 +155,8 @@ public class TestDialog implements DPDialog {
     public TestSupplier<Boolean> getBoolean(int index)
         {return M_booleans.get(index);}
     /** Get a string from the dialog.  It could have been added with
-     * {@link addChoice}, {@link addRadioButtons}, or {@link addTextBox}.
+     * {@link addChoice}, {@link addSearchableChoice}, {@link addRadioButtons},
+     * or {@link addTextBox}.
      *
      * @param index The index of the string you want to get.
      * @return A {@link TestSupplier TestSupplier&lt;String&gt;} that you can
@@ -150,19 +177,27 @@ public class TestDialog implements DPDialog {
     /** Get a double from the dialog.
      *
      * @param index The index of the double you want to get.
-     * @return A {@link TestSupplier TestSupplier&lt;Double&gt;} that you can
-     *         use to change the value on this "dialog".
+     * @return A {@link TestDialogNumber TestDialogNumber&lt;Double&gt;} that
+     *         you can use to change the value on this "dialog".
      */
     public TestDialogNumber<Double> getDouble(int index)
         {return M_doubles.get(index);}
     /** Get a integer from the dialog.
      *
      * @param index The index of the integer you want to get.
-     * @return A {@link TestSupplier TestSupplier&lt;Integer&gt;} that you can
-     *         use to change the value on this "dialog".
+     * @return A {@link TestDialogNumber TestDialogNumber&lt;Integer&gt;} that
+     *         you can use to change the value on this "dialog".
      */
     public TestDialogNumber<Integer> getInteger(int index)
         {return M_integers.get(index);}
+    /** Get a long integer from the dialog.
+     *
+     * @param index The index of the long integer you want to get.
+     * @return A {@link TestDialogNumber TestDialogNumber&lt;Long&gt;} that you
+     *         can use to change the value on this "dialog".
+     */
+    public TestDialogNumber<Long> getLong(int index)
+        {return M_longs.get(index);}
 
     private <T> Supplier<T> add(T defaultValue,
                                 ArrayList<TestSupplier<T>> list)
@@ -172,20 +207,11 @@ public class TestDialog implements DPDialog {
         list.add(sup);
         return sup;
     }
-    private <T extends Number & Comparable<T>>
-    TestDialogNumber<T> addNumber(T defaultValue,
-                                   ArrayList<TestDialogNumber<T>> list)
-    {
-        TestDialogNumber<T> num = new TestDialogNumber<>();
-        num.value = defaultValue;
-        list.add(num);
-        return num;
-    }
-
     private ArrayList<TestSupplier    <Boolean>> M_booleans = new ArrayList<>();
     private ArrayList<TestSupplier    <String>>  M_strings = new ArrayList<>();
     private ArrayList<TestSupplier    <Integer>> M_stringChoices =
         new ArrayList<>();
     private ArrayList<TestDialogNumber<Double>>  M_doubles = new ArrayList<>();
     private ArrayList<TestDialogNumber<Integer>> M_integers = new ArrayList<>();
+    private ArrayList<TestDialogNumber<Long>>    M_longs = new ArrayList<>();
 }
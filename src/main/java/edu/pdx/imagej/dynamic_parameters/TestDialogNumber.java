@@ -19,25 +19,68 @@
 
 package edu.pdx.imagej.dynamic_parameters;
 
-/** TestDialogNumber is a simple implementation of {@link DPDialog.DialogNumber}
- * that allows the programmer to change the value at will.
+/** TestDialogNumber is a simple implementation of {@link DPDialog.DialogDouble},
+ * {@link DPDialog.DialogInteger}, and {@link DPDialog.DialogLong} that allows
+ * the programmer to change the value at will.  Use
+ * {@link TestDialogNumber.DoubleNumber}, {@link TestDialogNumber.IntegerNumber},
+ * or {@link TestDialogNumber.LongNumber} to get one of them.
  */
-public class TestDialogNumber<T extends Number & Comparable<T>> implements DPDialog.DialogNumber<T> {
+public abstract class TestDialogNumber<T extends Number & Comparable<T>> {
     /** The value this dialog number contains.  You may change it to whatever
      * you wish, but you must call {@link DParameter#readFromDialog} before
-     * the parameter's value will actually change.
+     * the parameter's value will actually change.  Setting it to
+     * <code>null</code> makes the number invalid.
      */
     public T value;
-    /** {@inheritDoc} */ @Override
-    public T get() {return value;}
-    /** {@inheritDoc} */ @Override
-    public boolean inBounds(T value)
-    {
-        return (value.compareTo(M_min) >= 0 && value.compareTo(M_max) <= 0);
+    /** Checks if {@link value} is not <code>null</code>.
+     *
+     * @return Whether or not the value is valid.
+     */
+    public boolean valid() {return value != null;}
+
+    /** A TestDialogNumber that is a {@link DPDialog.DialogDouble}. */
+    public static class DoubleNumber extends TestDialogNumber<Double>
+                                     implements DPDialog.DialogDouble {
+        /** {@inheritDoc} */ @Override
+        public double get() {return value == null ? 0 : value;}
+        /** {@inheritDoc} */ @Override
+        public boolean inBounds(double value)
+            {return value >= M_min && value <= M_max;}
+        /** {@inheritDoc} */ @Override
+        public void setBounds(double min, double max)
+            {M_min = min; M_max = max;}
+
+        private double M_min = -Double.MAX_VALUE;
+        private double M_max = Double.MAX_VALUE;
     }
-    /** {@inheritDoc} */
-    @Override public void setBounds(T min, T max) {M_min = min; M_max = max;}
+    /** A TestDialogNumber that is a {@link DPDialog.DialogInteger}. */
+    public static class IntegerNumber extends TestDialogNumber<Integer>
+                                      implements DPDialog.DialogInteger {
+        /** {@inheritDoc} */ @Override
+        public int get() {return value == null ? 0 : value;}
+        /** {@inheritDoc} */ @Override
+        public boolean inBounds(int value)
+            {return value >= M_min && value <= M_max;}
+        /** {@inheritDoc} */ @Override
+        public void setBounds(int min, int max)
+            {M_min = min; M_max = max;}
 
-    private T M_min;
-    private T M_max;
+        private int M_min = Integer.MIN_VALUE;
+        private int M_max = Integer.MAX_VALUE;
+    }
+    /** A TestDialogNumber that is a {@link DPDialog.DialogLong}. */
+    public static class LongNumber extends TestDialogNumber<Long>
+                                   implements DPDialog.DialogLong {
+        /** {@inheritDoc} */ @Override
+        public long get() {return value == null ? 0 : value;}
+        /** {@inheritDoc} */ @Override
+        public boolean inBounds(long value)
+            {return value >= M_min && value <= M_max;}
+        /** {@inheritDoc} */ @Override
+        public void setBounds(long min, long max)
+            {M_min = min; M_max = max;}
+
+        private long M_min = Long.MIN_VALUE;
+        private long M_max = Long.MAX_VALUE;
+    }
 }
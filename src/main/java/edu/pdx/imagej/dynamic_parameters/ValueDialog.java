@@ -0,0 +1,203 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.awt.Panel;
+import java.awt.Color;
+import java.awt.Label;
+
+/** ValueDialog is a {@link DPDialog} that never shows anything.  Instead, it
+ * gives each input whose label is in a map the value from that map, as if the
+ * value had been typed into a dialog, and leaves every other input at its
+ * default value.
+ * <p>
+ * Numbers can be given as any <code>Number</code>, and text boxes can be given
+ * <code>double[]</code>s or <code>int[]</code>s for the array parameters.
+ * Choices are given by the string that is chosen, which for a
+ * {@link PluginParameter} is the name of the plugin.  An
+ * {@link ImageParameter}'s image can be given by its title alone.  A choice
+ * that isn't one of the options is an <code>IllegalArgumentException</code>.
+ * <p>
+ * It can also record the value it gives each input, which is used to find the
+ * values that a parameter would put on a real dialog.
+ */
+final class ValueDialog implements DPDialog {
+    ValueDialog(Map<String, ?> values)
+    {
+        this(values, null);
+    }
+    // Every value given to an input is put into record, if it isn't null
+    ValueDialog(Map<String, ?> values, Map<String, Object> record)
+    {
+        M_values = values;
+        M_record = record;
+    }
+    @Override
+    public Supplier<Boolean> addBoolean(String label, boolean defaultValue)
+    {
+        TestSupplier<Boolean> result = new TestSupplier<>();
+        result.value = (Boolean)value(label, defaultValue, Boolean.class);
+        return result;
+    }
+    @Override
+    public Supplier<String> addChoice(String label, String defaultValue,
+                                      String[] choices)
+    {
+        return choice(label, defaultValue, choices);
+    }
+    // Choices like an ImageParameter's "1: title" can be given by the title
+    // alone, because the number is only the image's position in the window
+    // list when the choices were made.  The title is also what is recorded,
+    // unless several choices have the same title.
+    @Override
+    public Supplier<Integer> addChoiceIndex(String label, String defaultValue,
+                                            String[] choices)
+    {
+        Object given = M_values.containsKey(label) ? M_values.get(label)
+                                                  : defaultValue;
+        if (!(given instanceof String)) {
+            throw new IllegalArgumentException("The value " + given
+                + " given for " + DParameter.displayLabel(label)
+                + " must be a String.");
+        }
+        String choice = (String)given;
+        int index = -1;
+        for (int i = 0; i < choices.length && index == -1; ++i) {
+            if (choices[i].equals(choice)) index = i;
+        }
+        for (int i = 0; i < choices.length && index == -1; ++i) {
+            if (title(choices[i]).equals(choice)) index = i;
+        }
+        if (index == -1) {
+            throw new IllegalArgumentException("\"" + choice
+                + "\" is not one of the choices for "
+                + DParameter.displayLabel(label) + ".");
+        }
+        if (M_record != null) {
+            String title = title(choices[index]);
+            int sameTitle = 0;
+            for (String other : choices) {
+                if (title(other).equals(title)) ++sameTitle;
+            }
+            M_record.put(label, sameTitle == 1 ? title : choices[index]);
+        }
+        TestSupplier<Integer> result = new TestSupplier<>();
+        result.value = index;
+        return result;
+    }
+    @Override
+    public DialogDouble addDouble(String label, double defaultValue,
+                                  String units, int decimals)
+    {
+        TestDialogNumber.DoubleNumber result = new TestDialogNumber.DoubleNumber();
+        result.value = ((Number)value(label, defaultValue, Number.class)).doubleValue();
+        return result;
+    }
+    @Override
+    public DialogInteger addInteger(String label, int defaultValue,
+                                    String units)
+    {
+        TestDialogNumber.IntegerNumber result = new TestDialogNumber.IntegerNumber();
+        result.value = ((Number)value(label, defaultValue, Number.class)).intValue();
+        return result;
+    }
+    @Override
+    public DialogLong addLong(String label, long defaultValue, String units)
+    {
+        TestDialogNumber.LongNumber result = new TestDialogNumber.LongNumber();
+        result.value = ((Number)value(label, defaultValue, Number.class)).longValue();
+        return result;
+    }
+    @Override public void addPanel(Panel panel) {}
+    @Override
+    public Supplier<String> addRadioButtons(String label, String defaultValue,
+                                            String[] choices, int rows,
+                                            int columns)
+    {
+        return choice(label, defaultValue, choices);
+    }
+    @Override
+    public Supplier<String> addTextBox(String label, String defaultValue)
+    {
+        TestSupplier<String> result = new TestSupplier<>();
+        Object value = value(label, defaultValue, Object.class);
+        if (value instanceof double[]) {
+            result.value = NumberList.format((double[])value);
+        }
+        else if (value instanceof int[]) {
+            result.value = NumberList.format((int[])value);
+        }
+        else result.value = String.valueOf(value);
+        return result;
+    }
+    @Override public Label addMessage(String message) {return null;}
+    @Override public Label addMessage(String message, Color color) {return null;}
+    @Override public int stringWidth(String string) {return 0;}
+
+    private Supplier<String> string(String label, String defaultValue)
+    {
+        TestSupplier<String> result = new TestSupplier<>();
+        result.value = (String)value(label, defaultValue, String.class);
+        return result;
+    }
+    // Only a given value is checked, because the default is whatever the
+    // parameter already had
+    private Supplier<String> choice(String label, String defaultValue,
+                                    String[] choices)
+    {
+        Supplier<String> result = string(label, defaultValue);
+        if (M_values.containsKey(label)
+                && !Arrays.asList(choices).contains(result.get())) {
+            throw new IllegalArgumentException("\"" + result.get()
+                + "\" is not one of the choices for "
+                + DParameter.displayLabel(label) + ".");
+        }
+        return result;
+    }
+    private static String title(String choice)
+    {
+        int colon = choice.indexOf(": ");
+        if (colon <= 0) return choice;
+        for (int i = 0; i < colon; ++i) {
+            if (!Character.isDigit(choice.charAt(i))) return choice;
+        }
+        return choice.substring(colon + 2);
+    }
+    private Object value(String label, Object defaultValue, Class<?> type)
+    {
+        Object result = defaultValue;
+        if (M_values.containsKey(label)) {
+            result = M_values.get(label);
+            if (!type.isInstance(result)) {
+                throw new IllegalArgumentException("The value " + result
+                    + " given for " + DParameter.displayLabel(label)
+                    + " must be a " + type.getSimpleName() + ".");
+            }
+        }
+        if (M_record != null) M_record.put(label, result);
+        return result;
+    }
+
+    private final Map<String, ?>      M_values;
+    private final Map<String, Object> M_record;
+}
@@ -0,0 +1,39 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+/** ValueListener is a listener for changes to the value of a
+ * {@link DParameter}.  Add it to a parameter using
+ * {@link AbstractDParameter#addValueListener}.
+ *
+ * @param <T> The type of value of the parameter.
+ */
+@FunctionalInterface
+public interface ValueListener<T> {
+    /** React to the value of a parameter changing.
+     * <p>
+     * This is only called when the new value is actually different from the
+     * old one.  Arrays are compared by their contents.
+     *
+     * @param oldValue The value before the change.
+     * @param newValue The value after the change.
+     */
+    void valueChanged(T oldValue, T newValue);
+}
@@ -43,6 +43,24 @@ public class BoolParameterTest {
         param.readFromDialog();
         assertEquals(param.getValue(), false, "BoolParameter should read from dialogs correctly.");
     }
+    @Test public void testSetValue()
+    {
+        BoolParameter param = new BoolParameter("", true);
+        boolean[] heard = {false};
+        param.addValueListener((oldValue, newValue) -> heard[0] = true);
+        param.setValue(false);
+        assertEquals(param.getValue(), false, "BoolParameter should be set directly.");
+        assertTrue(heard[0], "Setting the value directly should tell the listeners.");
+
+        boolean threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting BoolParameter to null should throw.");
+    }
     @Test public void testPrefs()
     {
         Context context = new Context(PrefService.class);
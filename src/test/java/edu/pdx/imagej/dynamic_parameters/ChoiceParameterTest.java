@@ -32,6 +32,25 @@ public class ChoiceParameterTest {
         ChoiceParameter param = new ChoiceParameter("", new String[] {"a", "b", "c"}, "b");
         assertEquals(param.getValue(), "b", "ChoiceParameter should start with its default value.");
     }
+    @Test public void testBadDefault()
+    {
+        boolean threw = false;
+        try {
+            new ChoiceParameter("", new String[] {"a", "b", "c"}, "d");
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "A default that isn't a choice should throw.");
+        threw = false;
+        try {
+            new ChoiceParameter("", new String[0]);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "A ChoiceParameter with no choices should throw.");
+    }
     @Test public void testDialog()
     {
         TestDialog dialog = new TestDialog();
@@ -41,6 +60,51 @@ public class ChoiceParameterTest {
         param.readFromDialog();
         assertEquals(param.getValue(), "a", "ChoiceParameter should read from dialogs correctly.");
     }
+    @Test public void testSearchable()
+    {
+        TestDialog dialog = new TestDialog();
+        ChoiceParameter param = new ChoiceParameter("", new String[] {"a", "b", "c"}, "b");
+        param.setSearchable(true);
+        param.addToDialog(dialog);
+        dialog.getString(0).value = "c";
+        param.readFromDialog();
+        assertEquals(param.getValue(), "c", "Searchable ChoiceParameters should read from dialogs correctly.");
+    }
+    @Test public void testListener()
+    {
+        TestDialog dialog = new TestDialog();
+        ChoiceParameter param = new ChoiceParameter("", new String[] {"a", "b", "c"}, "b");
+        String[] changes = new String[2];
+        int[] count = {0};
+        param.addValueListener((oldValue, newValue) -> {
+            changes[0] = oldValue;
+            changes[1] = newValue;
+            ++count[0];
+        });
+        param.addToDialog(dialog);
+        dialog.getString(0).value = "c";
+        param.readFromDialog();
+        assertEquals(count[0], 1, "Changing the value should call the listeners.");
+        assertEquals(changes[0], "b", "Listeners should get the old value.");
+        assertEquals(changes[1], "c", "Listeners should get the new value.");
+        param.readFromDialog();
+        assertEquals(count[0], 1, "Reading the same value again should not call the listeners.");
+    }
+    @Test public void testSetValue()
+    {
+        ChoiceParameter param = new ChoiceParameter("", new String[]{"a", "b"});
+        param.setValue("b");
+        assertEquals(param.getValue(), "b", "ChoiceParameter should be set directly.");
+        boolean threw = false;
+        try {
+            param.setValue("c");
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting something that isn't a choice should throw.");
+        assertEquals(param.getValue(), "b", "Setting something that isn't a choice should not change the value.");
+    }
     @Test public void testPrefs()
     {
         Context context = new Context(PrefService.class);
@@ -0,0 +1,119 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DependencyGraphTest {
+    @Test public void testOrder()
+    {
+        List<String> updates = new ArrayList<>();
+        IntParameter a = new IntParameter(1, "a");
+        TestParameter c = new TestParameter("c", updates);
+        TestParameter b = new TestParameter("b", updates);
+        c.depend(b);
+        b.depend(a);
+        DependencyGraph graph = new DependencyGraph(new DParameter<?>[]{c, b, a});
+        graph.update();
+        assertEquals(updates, Arrays.asList("b", "c"), "Parameters should be updated after what they depend on.");
+        updates.clear();
+        graph.update();
+        assertTrue(updates.isEmpty(), "If nothing changed, nothing should be updated.");
+
+        TestDialog dialog = new TestDialog();
+        a.addToDialog(dialog);
+        dialog.getInteger(0).value = 2;
+        a.readFromDialog();
+        graph.update();
+        assertEquals(updates, Arrays.asList("b", "c"), "Everything depending on a change should be updated.");
+    }
+    @Test public void testUnrelated()
+    {
+        List<String> updates = new ArrayList<>();
+        IntParameter a = new IntParameter(1, "a");
+        IntParameter b = new IntParameter(1, "b");
+        TestParameter c = new TestParameter("c", updates);
+        c.depend(a);
+        DependencyGraph graph = new DependencyGraph(new DParameter<?>[]{a, b, c});
+        graph.update();
+        updates.clear();
+
+        TestDialog dialog = new TestDialog();
+        b.addToDialog(dialog);
+        dialog.getInteger(0).value = 2;
+        b.readFromDialog();
+        graph.update();
+        assertTrue(updates.isEmpty(), "Parameters should not be updated when something they don't depend on changes.");
+    }
+    @Test public void testChanged()
+    {
+        List<String> updates = new ArrayList<>();
+        TestHoldingParameter hold = new TestHoldingParameter("hold");
+        IntParameter a = hold.addParameter(new IntParameter(1, "a"));
+        IntParameter b = new IntParameter(1, "b");
+        TestParameter c = new TestParameter("c", updates);
+        TestParameter d = new TestParameter("d", updates);
+        c.depend(hold);
+        d.depend(b);
+        DependencyGraph graph = new DependencyGraph(new DParameter<?>[]{hold, b, c, d});
+        graph.update();
+        updates.clear();
+
+        a.setValue(2);
+        b.setValue(2);
+        graph.update(a);
+        assertEquals(updates, Arrays.asList("c"), "Only what depends on the changed parameter and its holders should be updated.");
+        updates.clear();
+        graph.update();
+        assertEquals(updates, Arrays.asList("d"), "A full update should still find everything else that changed.");
+    }
+    @Test public void testAddedInHarvester()
+    {
+        List<String> updates = new ArrayList<>();
+        IntParameter a = new IntParameter(1, "a");
+        TestHoldingParameter hold = new TestHoldingParameter("hold");
+        Harvester harvester = new Harvester("", a, hold);
+        TestParameter b = hold.addParameter(new TestParameter("b", updates));
+        b.depend(a);
+        harvester.setValue("a", 2);
+        assertEquals(updates, Arrays.asList("b"), "A parameter added after the Harvester was made should still be updated.");
+    }
+    @Test public void testCycle()
+    {
+        TestParameter a = new TestParameter("a", new ArrayList<>());
+        TestParameter b = new TestParameter("b", new ArrayList<>());
+        a.depend(b);
+        b.depend(a);
+        boolean threw = false;
+        try {
+            new DependencyGraph(new DParameter<?>[]{a, b});
+        }
+        catch (IllegalStateException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Dependencies with a cycle should be rejected.");
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import org.scijava.Context;
+import org.scijava.prefs.PrefService;
+
+public class DoubleArrayParameterTest {
+    @Test public void testBase()
+    {
+        DoubleArrayParameter param = new DoubleArrayParameter(new double[]{1, 2}, "");
+        assertArrayEquals(new double[]{1, 2}, param.getValue(), "DoubleArrayParameter should start with its default value.");
+    }
+    @Test public void testDialog()
+    {
+        TestDialog dialog = new TestDialog();
+        DoubleArrayParameter param = new DoubleArrayParameter(new double[]{1, 2}, "");
+        param.addToDialog(dialog);
+        dialog.getString(0).value = "3.5, 4;5  6";
+        param.readFromDialog();
+        assertArrayEquals(new double[]{3.5, 4, 5, 6}, param.getValue(), "DoubleArrayParameter should read from dialogs correctly.");
+
+        dialog.getString(0).value = "1, a";
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "After inputting something that is not a number, there should be an error.");
+        dialog.getString(0).value = "1, NaN";
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "NaN should not be accepted as a number.");
+        dialog.getString(0).value = "Infinity";
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "Infinity should not be accepted as a number.");
+        dialog.getString(0).value = "";
+        param.readFromDialog();
+        assertTrue(param.getError() == null, "An empty list should not be an error.");
+        assertArrayEquals(new double[0], param.getValue(), "An empty list should make an empty array.");
+    }
+    @Test public void testValidation()
+    {
+        TestDialog dialog = new TestDialog();
+        DoubleArrayParameter param = new DoubleArrayParameter(new double[]{1, 2}, "");
+        param.addToDialog(dialog);
+        param.setBounds(0, 1.5);
+        assertTrue(param.getError() != null, "After setting bounds such that an element is outside the bounds, there should be an error.");
+        param.setBounds(0, 3);
+        assertTrue(param.getError() == null, "After setting bounds such that every element is inside the bounds, there should be no error.");
+        param.setLength(3, 3);
+        assertTrue(param.getError() != null, "Having the wrong number of elements should be an error.");
+        dialog.getString(0).value = "1 2 3";
+        param.readFromDialog();
+        assertTrue(param.getError() == null, "Having the right number of elements should not be an error.");
+    }
+    @Test public void testListener()
+    {
+        TestDialog dialog = new TestDialog();
+        DoubleArrayParameter param = new DoubleArrayParameter(new double[]{1, 2}, "");
+        int[] count = {0};
+        param.addValueListener((oldValue, newValue) -> ++count[0]);
+        param.addToDialog(dialog);
+        dialog.getString(0).value = "1, 2";
+        param.readFromDialog();
+        assertTrue(count[0] == 0, "An equal array should not call the listeners.");
+        dialog.getString(0).value = "1, 3";
+        param.readFromDialog();
+        assertTrue(count[0] == 1, "A different array should call the listeners.");
+    }
+    @Test public void testSetValue()
+    {
+        DoubleArrayParameter param = new DoubleArrayParameter(new double[]{0}, "");
+        param.setBounds(0, 3);
+        double[] value = {1, 2.5};
+        param.setValue(value);
+        value[0] = 3;
+        assertArrayEquals(param.getValue(), new double[]{1, 2.5}, "DoubleArrayParameter should be set directly, with a copy of the array.");
+        assertTrue(param.getError() == null, "Setting numbers inside the bounds should not make an error.");
+        param.setValue(new double[]{1, 5});
+        assertTrue(param.getError() != null, "Setting a number outside the bounds should make an error.");
+
+        boolean threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting DoubleArrayParameter to null should throw.");
+    }
+    @Test public void testPrefs()
+    {
+        Context context = new Context(PrefService.class);
+        DoubleArrayParameter param1 = new DoubleArrayParameter(new double[]{1, 0.1}, "");
+        DoubleArrayParameter param2 = new DoubleArrayParameter(new double[]{3}, "");
+        context.inject(param1);
+        context.inject(param2);
+        param1.saveToPrefs(getClass(), "a");
+        param2.readFromPrefs(getClass(), "a");
+        assertArrayEquals(new double[]{1, 0.1}, param2.getValue(), "DoubleArrayParameter should read from prefs correctly.");
+    }
+}
@@ -34,9 +34,7 @@ public class DoubleParameterTest {
     }
     @Test public void testBounds()
     {
-        TestDialog dialog = new TestDialog();
         DoubleParameter param = new DoubleParameter(1.5, "");
-        param.addToDialog(dialog); // Bounds only works through the dialog
         param.setBounds(0.0, 1.0);
         assertTrue(param.getError() != null, "After setting bounds such that the value is outside the bounds, there should be an error.");
         param.setBounds(0.0, 2.0);
@@ -67,16 +65,34 @@ public class DoubleParameterTest {
         param.readFromDialog();
         assertTrue(param.getError() == null, "After inputting a valid number, there not should be an error.");
     }
+    @Test public void testSetValue()
+    {
+        DoubleParameter param = new DoubleParameter(1.0, "");
+        param.setBounds(0, 3);
+        param.setValue(2.5);
+        assertEquals(param.getValue().doubleValue(), 2.5, "DoubleParameter should be set directly.");
+        assertTrue(param.getError() == null, "Setting a number inside the bounds should not make an error.");
+        param.setValue(Double.NaN);
+        assertTrue(param.getError() != null, "Setting NaN should make an error when there are bounds.");
+        param.setValue(0.0);
+        assertTrue(param.getError() == null, "Setting a number back inside the bounds should remove the error.");
+
+        boolean threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting DoubleParameter to null should throw.");
+    }
     @Test public void testPrefs()
     {
         Context context = new Context(PrefService.class);
-        TestDialog dialog = new TestDialog();
         DoubleParameter param1 = new DoubleParameter(1.0, "");
         DoubleParameter param2 = new DoubleParameter(2.0, "");
         context.inject(param1);
         context.inject(param2);
-        param1.addToDialog(dialog); // Bounds only works through the dialog
-        param2.addToDialog(dialog); // Ditto
         param1.saveToPrefs(getClass(), "a");
         param2.saveToPrefs(getClass(), "b");
         param2.readFromPrefs(getClass(), "a");
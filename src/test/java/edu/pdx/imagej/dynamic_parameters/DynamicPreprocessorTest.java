@@ -0,0 +1,140 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.scijava.Context;
+import org.scijava.module.AbstractModule;
+import org.scijava.module.AbstractModuleInfo;
+import org.scijava.module.DefaultMutableModuleInfo;
+import org.scijava.module.DefaultMutableModuleItem;
+import org.scijava.module.Module;
+import org.scijava.module.ModuleInfo;
+import org.scijava.module.ModuleItem;
+import org.scijava.prefs.PrefService;
+
+public class DynamicPreprocessorTest {
+    @Test public void testNoDynamicInputs()
+    {
+        TestModuleInfo info = new TestModuleInfo();
+        info.add(new DefaultMutableModuleItem<>(info, "n", Integer.class));
+        TestModule module1 = new TestModule(info);
+        TestModule module2 = new TestModule(info);
+        DynamicPreprocessor dynamic = preprocessor(null);
+        dynamic.process(module1);
+        dynamic.process(module2);
+        assertTrue(!dynamic.isCanceled(), "A module without dynamic parameters should not be canceled.");
+        assertTrue(!module1.isInputResolved("n"), "A module without dynamic parameters should be left alone.");
+        assertEquals(info.scans, 1, "The inputs of a module should only be looked through once.");
+    }
+    @Test public void testHarvested()
+    {
+        TestModuleInfo info = new TestModuleInfo();
+        info.add(new DefaultMutableModuleItem<>(info, "a", IntParameter.class));
+        TestModule module = new TestModule(info);
+        IntParameter param = new IntParameter(1, "A");
+        module.setInput("a", param);
+        Map<String, Object> values = new HashMap<>();
+        values.put("A", 3);
+        preprocessor(values).process(module);
+        assertEquals(param.getValue().intValue(), 3, "A module with dynamic parameters should be harvested.");
+        assertTrue(module.isInputResolved("a"), "A harvested input should be resolved.");
+
+        values.put("B", 4);
+        module = new TestModule(info);
+        module.setInput("a", new IntParameter(1, "A"));
+        DynamicPreprocessor dynamic = preprocessor(values);
+        dynamic.process(module);
+        assertTrue(dynamic.isCanceled(), "A value for a parameter that doesn't exist should cancel the module.");
+    }
+    @Test public void testMutableInfo()
+    {
+        DefaultMutableModuleInfo info = new DefaultMutableModuleInfo();
+        Map<String, Object> values = new HashMap<>();
+        values.put("A", 3);
+        preprocessor(values).process(new TestModule(info));
+
+        info.addInput(new DefaultMutableModuleItem<>(info, "a", IntParameter.class));
+        TestModule module = new TestModule(info);
+        IntParameter param = new IntParameter(1, "A");
+        module.setInput("a", param);
+        preprocessor(values).process(module);
+        assertEquals(param.getValue().intValue(), 3, "An input added to a MutableModuleInfo should be harvested.");
+    }
+
+    @Test public void testSupplied()
+    {
+        TestModuleInfo info = new TestModuleInfo();
+        info.add(new DefaultMutableModuleItem<>(info, "a", IntParameter.class));
+        TestModule module = new TestModule(info);
+        boolean[] harvested = {false};
+        IntParameter param = new IntParameter(1, "A") {
+            @Override public void setHarvester(Harvester h) {harvested[0] = true;}
+        };
+        param.setValue(2);
+        module.setInput("a", param);
+        module.resolveInput("a");
+        DynamicPreprocessor dynamic = preprocessor(null);
+        dynamic.process(module);
+        assertTrue(!dynamic.isCanceled(), "A module with every parameter supplied should run.");
+        assertTrue(!harvested[0], "A module with every parameter supplied should not make a Harvester.");
+        assertEquals(param.getValue().intValue(), 2, "A supplied parameter should keep its value.");
+
+        param.setBounds(0, 1);
+        dynamic = preprocessor(null);
+        dynamic.process(module);
+        assertTrue(dynamic.isCanceled(), "A supplied parameter with an error should cancel the module.");
+        assertTrue(!harvested[0], "A supplied parameter with an error should not make a Harvester.");
+    }
+    private DynamicPreprocessor preprocessor(Map<String, ?> values)
+    {
+        DynamicPreprocessor result = new DynamicPreprocessor();
+        M_context.inject(result);
+        if (values != null) result.setValues(values);
+        return result;
+    }
+    private final Context M_context = new Context(PrefService.class);
+
+    private static class TestModuleInfo extends AbstractModuleInfo {
+        void add(ModuleItem<?> input) {registerInput(input);}
+        @Override
+        public Iterable<ModuleItem<?>> inputs()
+        {
+            ++scans;
+            return super.inputs();
+        }
+        @Override public String getDelegateClassName() {return getClass().getName();}
+        @Override public Class<?> loadDelegateClass() {return getClass();}
+        @Override public Module createModule() {return new TestModule(this);}
+        int scans = 0;
+    }
+    private static class TestModule extends AbstractModule {
+        TestModule(ModuleInfo info) {M_info = info;}
+        @Override public ModuleInfo getInfo() {return M_info;}
+        @Override public void run() {}
+        private final ModuleInfo M_info;
+    }
+}
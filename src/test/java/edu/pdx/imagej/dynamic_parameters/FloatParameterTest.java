@@ -0,0 +1,107 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import org.scijava.Context;
+import org.scijava.prefs.PrefService;
+
+public class FloatParameterTest {
+    @Test public void testBase()
+    {
+        FloatParameter param = new FloatParameter(1.0f, "");
+        assertEquals(param.getValue().floatValue(), 1.0f, "FloatParameter should start with its default value.");
+    }
+    @Test public void testBounds()
+    {
+        FloatParameter param = new FloatParameter(1.5f, "");
+        param.setBounds(0.0f, 1.0f);
+        assertTrue(param.getError() != null, "After setting bounds such that the value is outside the bounds, there should be an error.");
+        param.setBounds(0.0f, 2.0f);
+        assertTrue(param.getError() == null, "After setting bounds such that the value is inside the bounds, there should be no error.");
+    }
+    @Test public void testDialog()
+    {
+        TestDialog dialog = new TestDialog();
+        FloatParameter param = new FloatParameter(1.0f, "");
+        param.addToDialog(dialog);
+        dialog.getDouble(0).value = 1.5;
+        param.readFromDialog();
+        assertEquals(param.getValue().floatValue(), 1.5f, "FloatParameter should read from dialogs correctly.");
+
+        param.setBounds(0.0f, 2.0f);
+
+        dialog.getDouble(0).value = 2.5;
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "After inputting a number outside the range, there should be an error.");
+        dialog.getDouble(0).value = 1.5;
+        param.readFromDialog();
+        assertTrue(param.getError() == null, "After being out of range, going back inside it should make no error.");
+
+        dialog.getDouble(0).value = null;
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "After inputting an invalid number, there should be an error.");
+        dialog.getDouble(0).value = 1.5;
+        param.readFromDialog();
+        assertTrue(param.getError() == null, "After inputting a valid number, there not should be an error.");
+    }
+    @Test public void testSetValue()
+    {
+        FloatParameter param = new FloatParameter(1, "");
+        param.setBounds(0, 3);
+        param.setValue(2.5f);
+        assertEquals(param.getValue().doubleValue(), 2.5, "FloatParameter should be set directly.");
+        assertTrue(param.getError() == null, "Setting a number inside the bounds should not make an error.");
+        param.setValue(Float.NaN);
+        assertTrue(param.getError() != null, "Setting NaN should make an error.");
+        param.setValue(3f);
+        assertTrue(param.getError() == null, "Setting a number back inside the bounds should remove the error.");
+
+        boolean threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting FloatParameter to null should throw.");
+    }
+    @Test public void testPrefs()
+    {
+        Context context = new Context(PrefService.class);
+        FloatParameter param1 = new FloatParameter(1.0f, "");
+        FloatParameter param2 = new FloatParameter(2.0f, "");
+        context.inject(param1);
+        context.inject(param2);
+        param1.saveToPrefs(getClass(), "a");
+        param2.saveToPrefs(getClass(), "b");
+        param2.readFromPrefs(getClass(), "a");
+        assertEquals(param2.getValue().floatValue(), 1.0f, "FloatParameter should read from prefs correctly.");
+
+        param1.setBounds(0.0f, 1.5f);
+        param1.readFromPrefs(getClass(), "b");
+        assertTrue(param1.getError() != null, "After reading an invalid number from prefs, there should be an error.");
+        param1.readFromPrefs(getClass(), "a");
+        assertTrue(param1.getError() == null, "After reading a valid number from prefs, there should be no error.");
+    }
+}
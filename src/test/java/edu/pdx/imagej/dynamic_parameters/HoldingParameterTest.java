@@ -46,6 +46,29 @@ public class HoldingParameterTest {
         assertTrue(param1.hasReadFromDialog(), "Visible parameters should be read from the dialog.");
         assertTrue(!param2.hasReadFromDialog(), "Invisible parameters should not be read from the dialog.");
     }
+    @Test public void testValueListener()
+    {
+        TestParameter param1 = new TestParameter();
+        IntParameter param2 = new IntParameter(1, "");
+        HoldingParameter<Object> hold = new HoldingParameter<Object>("") {
+            {
+                addParameter(param1);
+                addParameter(param2);
+            }
+            // Never equal to the last value
+            @Override public Object getValue() {return new Object();}
+        };
+        int[] count = {0};
+        hold.addToDialog(new TestDialog());
+        hold.addValueListener((oldValue, newValue) -> ++count[0]);
+        hold.readFromDialog();
+        assertEquals(count[0], 0, "A holder whose parameters didn't change should not tell its listeners, even if its value is a new object.");
+        param2.setValue(2);
+        hold.notifyIfChanged();
+        assertEquals(count[0], 1, "A holder whose parameters changed should tell its listeners.");
+        hold.notifyIfChanged();
+        assertEquals(count[0], 1, "A holder should only tell its listeners once for each change.");
+    }
     @Test public void testSaveToPrefs()
     {
         TestHoldingParameter hold = new TestHoldingParameter();
@@ -92,18 +115,123 @@ public class HoldingParameterTest {
         hold.setError(null);
         assertEquals(hold.getError(), "d", "After removing the holding parameter's error, a parameter's error should be the error.");
     }
+    @Test public void testVisibilityChanged()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        TestHoldingParameter inner = outer.addParameter(new TestHoldingParameter());
+        TestParameter param1 = inner.addParameter(new TestParameter());
+        TestParameter param2 = inner.addParameter(new TestParameter());
+        assertTrue(!outer.visibilityChanged(), "Nothing should have changed visibility at first.");
+
+        param1.setNewVisibility(false);
+        assertTrue(inner.visibilityChanged(), "A parameter's visibility change should be seen by its holder.");
+        assertTrue(outer.visibilityChanged(), "A parameter's visibility change should be seen by all holders above it.");
+        param2.setNewVisibility(false);
+        param1.setNewVisibility(true);
+        assertTrue(outer.visibilityChanged(), "Visibility should still be changed while any parameter has changed.");
+        param2.setNewVisibility(true);
+        assertTrue(!outer.visibilityChanged(), "Setting the visibility back should undo the change.");
+
+        param1.setNewVisibility(false);
+        outer.refreshVisibility();
+        assertTrue(!param1.visible(), "Refreshing the holder should refresh the parameters inside of it.");
+        assertTrue(!outer.visibilityChanged(), "After refreshing, nothing should have changed visibility.");
+
+        param2.setNewVisibility(false);
+        inner.removeParameter(param2);
+        assertTrue(!outer.visibilityChanged(), "A removed parameter's visibility change should be forgotten.");
+        inner.addParameter(param2);
+        assertTrue(outer.visibilityChanged(), "An added parameter's visibility change should be seen.");
+        inner.clearParameters();
+        assertTrue(!outer.visibilityChanged(), "Clearing the parameters should forget their visibility changes.");
+    }
+    @Test public void testUntrackedVisibility()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        TestHoldingParameter inner = outer.addParameter(new TestHoldingParameter());
+        TestParameter param = inner.addParameter(new TestParameter());
+        UntrackedParameter untracked = inner.addParameter(new UntrackedParameter());
+        assertTrue(!outer.visibilityChanged(), "Nothing should have changed visibility at first.");
+        untracked.changed = true;
+        assertTrue(outer.visibilityChanged(), "A parameter that overrides visibilityChanged should be seen through every holder above it.");
+        untracked.changed = false;
+        assertTrue(!outer.visibilityChanged(), "A parameter that overrides visibilityChanged should be asked again.");
+
+        param.setNewVisibility(false);
+        untracked.changed = true;
+        inner.removeParameter(untracked);
+        assertTrue(outer.visibilityChanged(), "After removing the untracked parameter, the rest should still be counted.");
+        param.setNewVisibility(true);
+        assertTrue(!outer.visibilityChanged(), "After removing the untracked parameter, changes should be told to the holders again.");
+        ParameterTree tree = new ParameterTree(new DParameter<?>[]{outer});
+        inner.addParameter(untracked);
+        assertTrue(tree.visibilityChanged(), "The tree should see parameters that override visibilityChanged.");
+    }
+    @Test public void testInvalid()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        TestHoldingParameter inner = outer.addParameter(new TestHoldingParameter());
+        inner.addParameter(new TestParameter());
+        assertTrue(!outer.invalid(), "With no invalid parameters, the holder should not be invalid.");
+        DParameter<?> bad = inner.addParameter(new InvalidParameter());
+        assertTrue(inner.invalid(), "Adding an invalid parameter should make the holder invalid.");
+        assertTrue(outer.invalid(), "Adding an invalid parameter should make all holders above it invalid.");
+        inner.removeParameter(bad);
+        assertTrue(!outer.invalid(), "Removing the invalid parameter should make the holders valid.");
+    }
+    @Test public void testGetParameter()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        TestHoldingParameter group = outer.addParameter(new TestHoldingParameter("Group"));
+        TestParameter a = outer.addParameter(new TestParameter("a"));
+        TestParameter b = group.addParameter(new TestParameter("b"));
+        TestParameter dotted = group.addParameter(new TestParameter("c.d"));
+        assertEquals(a, outer.getParameter("a"), "A parameter should be found by its label.");
+        assertEquals(group, outer.getParameter("Group"), "A HoldingParameter should be found by its label.");
+        assertEquals(b, outer.getParameter("Group.b"), "A nested parameter should be found by its path.");
+        assertEquals(dotted, outer.getParameter("Group.c.d"), "A label with a period in it should be found.");
+        assertEquals(null, outer.getParameter("Group.x"), "A path that doesn't exist should give null.");
+
+        TestParameter b2 = group.addParameter(new TestParameter("b"));
+        assertEquals(b, outer.getParameter("Group.b"), "The first parameter with a label should be found.");
+        group.removeParameter(b);
+        assertEquals(b2, outer.getParameter("Group.b"), "After removing a parameter, the next one with its label should be found.");
+        group.clearParameters();
+        assertEquals(null, outer.getParameter("Group.b"), "Cleared parameters should not be found.");
+    }
     // This class is basically HoldingParameter, but with all protected things public
     private static class TestHoldingParameter extends HoldingParameter<Boolean> {
         public TestHoldingParameter() {super("");}
+        public TestHoldingParameter(String label) {super(label);}
         @Override public Boolean getValue() {return null;}
         @Override public <T extends DParameter<?>> T addParameter(T param) {return super.addParameter(param);}
         @Override public boolean removeParameter(DParameter<?> param) {return super.removeParameter(param);}
         @Override public DParameter<?> removeParameter(int index) {return super.removeParameter(index);}
         @Override public void clearParameters() {super.clearParameters();}
     }
+    private static class UntrackedParameter extends AbstractDParameter<Boolean> {
+        public UntrackedParameter() {super("");}
+        @Override public Boolean getValue() {return null;}
+        @Override public boolean visibilityChanged() {return changed;}
+        @Override public void addToDialog(DPDialog dialog) {}
+        @Override public void readFromDialog() {}
+        @Override public void saveToPrefs(Class<?> cls, String name) {}
+        @Override public void readFromPrefs(Class<?> cls, String name) {}
+        boolean changed = false;
+    }
+    private static class InvalidParameter extends AbstractDParameter<Boolean> {
+        public InvalidParameter() {super("");}
+        @Override public Boolean getValue() {return null;}
+        @Override public boolean invalid() {return true;}
+        @Override public void addToDialog(DPDialog dialog) {}
+        @Override public void readFromDialog() {}
+        @Override public void saveToPrefs(Class<?> cls, String name) {}
+        @Override public void readFromPrefs(Class<?> cls, String name) {}
+    }
     // This class just override all of the functions to say that they have happened
     private static class TestParameter extends AbstractDParameter<Boolean> {
         public TestParameter() {super("");}
+        public TestParameter(String label) {super(label);}
         @Override public Boolean getValue() {return null;}
         @Override public void saveToPrefs(Class<?> cls, String name)
             {M_hasSavedToPrefs = true;}
@@ -23,6 +23,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
 import ij.ImagePlus;
 import ij.process.FloatProcessor;
 
@@ -43,6 +47,23 @@ public class ImageParameterTest {
         assertEquals(M_imp2, param.getValue(), "ImageParameter should read "
             + "from dialogs correctly.");
     }
+    @Test public void testSetValue()
+    {
+        ImageParameter param =
+            new ImageParameter("", new ImagePlus[]{M_imp1, M_imp2});
+        param.setValue(M_imp2);
+        assertEquals(M_imp2, param.getValue(), "ImageParameter should be set "
+            + "directly.");
+        boolean threw = false;
+        try {
+            param.setValue(M_imp3);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting an image that can't be chosen should "
+            + "throw.");
+    }
     @Test public void testPrefs()
     {
         Context context = new Context(PrefService.class);
@@ -72,6 +93,71 @@ public class ImageParameterTest {
         assertEquals(M_imp2, param4.getValue(), "ImageParameter should not do "
             + "anything when reading from prefs if no image of that name was "
             + "saved.");
+
+        ImageParameter param5 =
+            new ImageParameter("", new ImagePlus[] {M_imp1, M_imp2, M_imp3});
+        ImageParameter param6 =
+            new ImageParameter("", new ImagePlus[] {M_imp1, M_imp2, M_imp3});
+        ImageParameter param7 =
+            new ImageParameter("", new ImagePlus[] {M_imp3, M_imp1, M_imp2});
+        context.inject(param5);
+        context.inject(param6);
+        context.inject(param7);
+        TestDialog dialog = new TestDialog();
+        param5.addToDialog(dialog);
+        dialog.getStringIndex(0).value = 2;
+        param5.readFromDialog();
+        param5.saveToPrefs(getClass(), "b");
+        param6.readFromPrefs(getClass(), "b");
+        assertEquals(M_imp3, param6.getValue(), "ImageParameter should pick "
+            + "the image in the same position when several have the same "
+            + "name.");
+        param7.readFromPrefs(getClass(), "b");
+        assertEquals(M_imp3, param7.getValue(), "ImageParameter should pick "
+            + "the first image with the right name if the position doesn't "
+            + "match.");
+    }
+    @Test public void testFilter()
+    {
+        ImagePlus wide =
+            new ImagePlus("wide", new FloatProcessor(new float[][]{{1}, {2}}));
+        ImageParameter param = new ImageParameter("",
+            new ImagePlus[]{M_imp1, wide, M_imp2}, d -> d.getWidth() == 1);
+        TestDialog dialog = new TestDialog();
+        param.addToDialog(dialog);
+        dialog.getStringIndex(0).value = 1;
+        param.readFromDialog();
+        assertEquals(M_imp2, param.getValue(), "ImageParameter should not "
+            + "offer images that do not pass the filter.");
+
+        param = new ImageParameter("",
+            new ImagePlus[]{M_imp1, M_imp2}, d -> d.getWidth() == 2);
+        assertTrue(param.invalid(), "ImageParameter should be invalid if no "
+            + "images pass the filter.");
+    }
+    @Test public void testDirectory() throws IOException
+    {
+        File directory = Files.createTempDirectory("images").toFile();
+        try {
+            File image = new File(directory, "a.tif");
+            image.createNewFile();
+            new File(directory, "b.txt").createNewFile();
+            ImageParameter param = new ImageParameter("", directory);
+            assertTrue(!param.invalid(), "ImageParameter should be valid if there "
+                + "are image files in the directory.");
+            TestDialog dialog = new TestDialog();
+            param.addToDialog(dialog);
+            assertTrue(param.getError() == null, "ImageParameter should not have "
+                + "an error before trying to open an existing file.");
+            image.delete();
+            param.readFromDialog();
+            assertTrue(param.getError() != null, "ImageParameter should have an "
+                + "error if the selected file no longer exists.");
+        }
+        finally {
+            for (File file : directory.listFiles()) file.delete();
+            directory.delete();
+        }
     }
     private ImagePlus M_imp1 =
         new ImagePlus("1", new FloatProcessor(new float[][]{{1}}));
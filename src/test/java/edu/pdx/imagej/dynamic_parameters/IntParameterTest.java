@@ -34,9 +34,7 @@ public class IntParameterTest {
     }
     @Test public void testBounds()
     {
-        TestDialog dialog = new TestDialog();
         IntParameter param = new IntParameter(2, "");
-        param.addToDialog(dialog); // Bounds only works through the dialog
         param.setBounds(0, 1);
         assertTrue(param.getError() != null, "After setting bounds such that the value is outside the bounds, there should be an error.");
         param.setBounds(0, 3);
@@ -67,16 +65,44 @@ public class IntParameterTest {
         param.readFromDialog();
         assertTrue(param.getError() == null, "After inputting a valid number, there should not be an error.");
     }
+    @Test public void testSetValue()
+    {
+        IntParameter param = new IntParameter(1, "");
+        param.setBounds(0, 3);
+        param.setValue(2);
+        assertEquals(param.getValue().intValue(), 2, "IntParameter should be set directly.");
+        assertTrue(param.getError() == null, "Setting a number inside the bounds should not make an error.");
+        param.setValue(4);
+        assertTrue(param.getError() != null, "Setting a number outside the bounds should make an error, even without a dialog.");
+        param.setValue(3);
+        assertTrue(param.getError() == null, "Setting a number back inside the bounds should remove the error.");
+
+        boolean threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting IntParameter to null should throw.");
+
+        threw = false;
+        Harvester harvester = new Harvester("", new IntParameter(1, "a"));
+        try {
+            harvester.setValue("a", 2.0);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting IntParameter to a value of the wrong type through a Harvester should throw.");
+    }
     @Test public void testPrefs()
     {
         Context context = new Context(PrefService.class);
-        TestDialog dialog = new TestDialog();
         IntParameter param1 = new IntParameter(1, "");
         IntParameter param2 = new IntParameter(3, "");
         context.inject(param1);
         context.inject(param2);
-        param1.addToDialog(dialog); // Bounds only works through the dialog
-        param2.addToDialog(dialog); // Ditto
         param1.saveToPrefs(getClass(), "a");
         param2.saveToPrefs(getClass(), "b");
         param2.readFromPrefs(getClass(), "a");
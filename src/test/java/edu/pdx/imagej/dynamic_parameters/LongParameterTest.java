@@ -0,0 +1,117 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import org.scijava.Context;
+import org.scijava.prefs.PrefService;
+
+public class LongParameterTest {
+    @Test public void testBase()
+    {
+        LongParameter param = new LongParameter(1, "");
+        assertEquals(param.getValue().longValue(), 1L, "LongParameter should start with its default value.");
+    }
+    @Test public void testLarge()
+    {
+        TestDialog dialog = new TestDialog();
+        LongParameter param = new LongParameter(1L << 40, "");
+        param.addToDialog(dialog);
+        assertEquals(param.getValue().longValue(), 1L << 40, "LongParameter should hold values that don't fit in an int.");
+        dialog.getLong(0).value = Long.MAX_VALUE;
+        param.readFromDialog();
+        assertEquals(param.getValue().longValue(), Long.MAX_VALUE, "LongParameter should read large values from dialogs correctly.");
+    }
+    @Test public void testBounds()
+    {
+        LongParameter param = new LongParameter(2, "");
+        param.setBounds(0, 1);
+        assertTrue(param.getError() != null, "After setting bounds such that the value is outside the bounds, there should be an error.");
+        param.setBounds(0, 3);
+        assertTrue(param.getError() == null, "After setting bounds such that the value is inside the bounds, there should be no error.");
+    }
+    @Test public void testDialog()
+    {
+        TestDialog dialog = new TestDialog();
+        LongParameter param = new LongParameter(1, "");
+        param.addToDialog(dialog);
+        dialog.getLong(0).value = 2L;
+        param.readFromDialog();
+        assertEquals(param.getValue().longValue(), 2L, "LongParameter should read from dialogs correctly.");
+
+        param.setBounds(0, 3);
+
+        dialog.getLong(0).value = 4L;
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "After inputting a number outside the range, there should be an error.");
+        dialog.getLong(0).value = 2L;
+        param.readFromDialog();
+        assertTrue(param.getError() == null, "After being out of range, going back inside it should make no error.");
+
+        dialog.getLong(0).value = null;
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "After inputting an invalid number, there should be an error.");
+        dialog.getLong(0).value = 2L;
+        param.readFromDialog();
+        assertTrue(param.getError() == null, "After inputting a valid number, there should not be an error.");
+    }
+    @Test public void testSetValue()
+    {
+        LongParameter param = new LongParameter(1, "");
+        param.setBounds(0, 3_000_000_000L);
+        param.setValue(2_000_000_000L);
+        assertEquals(param.getValue().longValue(), 2_000_000_000L, "LongParameter should be set directly.");
+        assertTrue(param.getError() == null, "Setting a number inside the bounds should not make an error.");
+        param.setValue(4_000_000_000L);
+        assertTrue(param.getError() != null, "Setting a number outside the bounds should make an error, even without a dialog.");
+        param.setValue(3L);
+        assertTrue(param.getError() == null, "Setting a number back inside the bounds should remove the error.");
+
+        boolean threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting LongParameter to null should throw.");
+    }
+    @Test public void testPrefs()
+    {
+        Context context = new Context(PrefService.class);
+        LongParameter param1 = new LongParameter(1, "");
+        LongParameter param2 = new LongParameter(3, "");
+        context.inject(param1);
+        context.inject(param2);
+        param1.saveToPrefs(getClass(), "a");
+        param2.saveToPrefs(getClass(), "b");
+        param2.readFromPrefs(getClass(), "a");
+        assertEquals(param2.getValue().longValue(), 1L, "LongParameter should read from prefs correctly.");
+
+        param1.setBounds(0, 2);
+        param1.readFromPrefs(getClass(), "b");
+        assertTrue(param1.getError() != null, "After reading an invalid number from prefs, there should be an error.");
+        param1.readFromPrefs(getClass(), "a");
+        assertTrue(param1.getError() == null, "After reading a valid number from prefs, there should be no error.");
+    }
+}
@@ -0,0 +1,97 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class MacroOptionsTest {
+    @Test public void testKeys()
+    {
+        TestHoldingParameter group = new TestHoldingParameter("My Group");
+        group.addParameter(new IntParameter(3, "Some Value"));
+        BoolParameter hidden = group.addParameter(new BoolParameter("Hidden", true));
+        hidden.setNewVisibility(false);
+        hidden.refreshVisibility();
+        StringBuilder keys = new StringBuilder();
+        MacroOptions.forEachOption(new DParameter<?>[]{group},
+            (key, value) -> keys.append(key).append('=').append(value).append(' '));
+        assertEquals(keys.toString(), "my_group.some_value=3 ", "Keys should be made from the path, and invisible parameters should not be used.");
+    }
+    @Test public void testRoundTrip()
+    {
+        TestHoldingParameter group1 = new TestHoldingParameter("Group");
+        IntParameter int1 = group1.addParameter(new IntParameter(1, "Int"));
+        BoolParameter bool1 = group1.addParameter(new BoolParameter("Bool", false));
+        ChoiceParameter choice1 = new ChoiceParameter("Choice", new String[]{"a", "b c"});
+        DoubleParameter double1 = new DoubleParameter(1.0, "Double");
+        int1.setValue(5);
+        bool1.setValue(true);
+        choice1.setValue("b c");
+        double1.setValue(2.5);
+        StringBuilder options = new StringBuilder();
+        MacroOptions.forEachOption(new DParameter<?>[]{group1, choice1, double1}, (key, value) -> {
+            if (value instanceof Boolean) {
+                if ((Boolean)value) options.append(key).append(' ');
+            }
+            else {
+                String text = String.valueOf(value);
+                if (text.contains(" ")) text = "[" + text + "]";
+                options.append(key).append('=').append(text).append(' ');
+            }
+        });
+
+        TestHoldingParameter group2 = new TestHoldingParameter("Group");
+        IntParameter int2 = group2.addParameter(new IntParameter(1, "Int"));
+        BoolParameter bool2 = group2.addParameter(new BoolParameter("Bool", false));
+        ChoiceParameter choice2 = new ChoiceParameter("Choice", new String[]{"a", "b c"});
+        DoubleParameter double2 = new DoubleParameter(1.0, "Double");
+        MacroOptions.apply(new DParameter<?>[]{group2, choice2, double2}, options.toString());
+        assertEquals(int2.getValue().intValue(), 5, "Nested integers should be read from the options.");
+        assertEquals(bool2.getValue(), true, "Booleans should be read from the options.");
+        assertEquals(choice2.getValue(), "b c", "Values with spaces should be read from the options.");
+        assertEquals(double2.getValue().doubleValue(), 2.5, "Doubles should be read from the options.");
+    }
+    @Test public void testExactKeys()
+    {
+        TestHoldingParameter group = new TestHoldingParameter("Group");
+        IntParameter inner = group.addParameter(new IntParameter(1, "Radius"));
+        IntParameter outer = new IntParameter(1, "Radius");
+        BoolParameter flag = new BoolParameter("Stack", false);
+        MacroOptions.apply(new DParameter<?>[]{group, outer, flag},
+                           "group.radius=5 title=[a stack] radius=2");
+        assertEquals(inner.getValue().intValue(), 5, "A nested key should not be confused with a top-level key.");
+        assertEquals(outer.getValue().intValue(), 2, "A top-level key should not be found inside of a nested key.");
+        assertEquals(flag.getValue(), false, "A flag should not be found inside of brackets.");
+    }
+    @Test public void testBadNumber()
+    {
+        IntParameter param = new IntParameter(1, "Int");
+        boolean threw = false;
+        try {
+            MacroOptions.apply(new DParameter<?>[]{param}, "int=abc");
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "A number that can't be read should be an error.");
+    }
+}
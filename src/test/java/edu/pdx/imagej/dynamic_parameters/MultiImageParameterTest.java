@@ -0,0 +1,121 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import ij.ImagePlus;
+import ij.process.FloatProcessor;
+
+import org.scijava.Context;
+import org.scijava.prefs.PrefService;
+
+public class MultiImageParameterTest {
+    @Test public void testDialog()
+    {
+        TestDialog dialog = new TestDialog();
+        MultiImageParameter param = new MultiImageParameter("",
+            new ImagePlus[]{M_imp1, M_imp2, M_imp3});
+        param.addToDialog(dialog);
+        assertEquals(Arrays.asList(M_imp1, M_imp2, M_imp3), param.getValue(),
+            "MultiImageParameter should start with all images selected.");
+
+        dialog.getString(0).value = "1, 3";
+        param.readFromDialog();
+        assertEquals(Arrays.asList(M_imp1, M_imp3), param.getValue(),
+            "MultiImageParameter should read ranges from dialogs correctly.");
+
+        dialog.getString(0).value = "1-3";
+        dialog.getString(1).value = "b";
+        param.readFromDialog();
+        assertEquals(Arrays.asList(M_imp2, M_imp3), param.getValue(),
+            "MultiImageParameter should filter by title.");
+
+        dialog.getString(0).value = "2-5";
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "A range outside of the images "
+            + "should be an error.");
+
+        dialog.getString(0).value = "1";
+        param.readFromDialog();
+        assertTrue(param.getError() != null, "Selecting no images should be an "
+            + "error.");
+    }
+    @Test public void testPrefs()
+    {
+        Context context = new Context(PrefService.class);
+        TestDialog dialog = new TestDialog();
+        MultiImageParameter param1 = new MultiImageParameter("",
+            new ImagePlus[]{M_imp1, M_imp2, M_imp3});
+        MultiImageParameter param2 = new MultiImageParameter("",
+            new ImagePlus[]{M_imp3, M_imp1});
+        context.inject(param1);
+        context.inject(param2);
+        param1.addToDialog(dialog);
+        dialog.getString(0).value = "2-3";
+        param1.readFromDialog();
+        param1.saveToPrefs(getClass(), "a");
+
+        param2.readFromPrefs(getClass(), "a");
+        assertEquals(Arrays.asList(M_imp3), param2.getValue(),
+            "MultiImageParameter should remember the selection by title.");
+    }
+    @Test public void testSetValue()
+    {
+        MultiImageParameter param = new MultiImageParameter("",
+            new ImagePlus[]{M_imp1, M_imp2, M_imp3});
+        param.setValue(Arrays.asList(M_imp3, M_imp1));
+        assertEquals(Arrays.asList(M_imp1, M_imp3), param.getValue(),
+            "MultiImageParameter should be set directly.");
+        param.setValue(Arrays.<ImagePlus>asList());
+        assertTrue(param.getError() != null, "Setting no images should be an "
+            + "error.");
+
+        ImagePlus other =
+            new ImagePlus("c", new FloatProcessor(new float[][]{{4}}));
+        boolean threw = false;
+        try {
+            param.setValue(Arrays.asList(other));
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting an image that can't be chosen should "
+            + "throw.");
+        threw = false;
+        try {
+            param.setValue(null);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Setting MultiImageParameter to null should throw.");
+    }
+    private ImagePlus M_imp1 =
+        new ImagePlus("a", new FloatProcessor(new float[][]{{1}}));
+    private ImagePlus M_imp2 =
+        new ImagePlus("b1", new FloatProcessor(new float[][]{{2}}));
+    private ImagePlus M_imp3 =
+        new ImagePlus("b2", new FloatProcessor(new float[][]{{3}}));
+}
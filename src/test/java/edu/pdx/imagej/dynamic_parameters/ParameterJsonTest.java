@@ -0,0 +1,118 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class ParameterJsonTest {
+    @Test public void testRoundTrip() throws IOException
+    {
+        TestHoldingParameter group1 = new TestHoldingParameter("Group");
+        IntParameter int1 = group1.addParameter(new IntParameter(1, "Int"));
+        BoolParameter bool1 = group1.addParameter(new BoolParameter("Bool", true));
+        ChoiceParameter choice1 = new ChoiceParameter("Choice", new String[]{"a", "b \"c\""});
+        DoubleArrayParameter array1 = new DoubleArrayParameter(new double[]{1, 2}, "Array");
+        int1.setValue(5);
+        bool1.setValue(false);
+        choice1.setValue("b \"c\"");
+        bool1.setNewVisibility(false);
+        bool1.refreshVisibility();
+        StringWriter out = new StringWriter();
+        ParameterJson.write(new DParameter<?>[]{group1, choice1, array1}, out);
+
+        TestHoldingParameter group2 = new TestHoldingParameter("Group");
+        IntParameter int2 = group2.addParameter(new IntParameter(1, "Int"));
+        BoolParameter bool2 = group2.addParameter(new BoolParameter("Bool", true));
+        ChoiceParameter choice2 = new ChoiceParameter("Choice", new String[]{"a", "b \"c\""});
+        DoubleArrayParameter array2 = new DoubleArrayParameter(new double[]{3}, "Array");
+        ParameterJson.read(new DParameter<?>[]{group2, choice2, array2}, new StringReader(out.toString()));
+        assertEquals(int2.getValue().intValue(), 5, "Nested parameters should be read back.");
+        assertEquals(bool2.getValue(), false, "Invisible parameters should be written and read back.");
+        assertEquals(choice2.getValue(), "b \"c\"", "Strings should be escaped and read back.");
+        assertArrayEquals(array2.getValue(), new double[]{1, 2}, "Arrays should be read back.");
+    }
+    @Test public void testOverriddenHolder() throws IOException
+    {
+        ScaledParameter scaled1 = new ScaledParameter();
+        scaled1.M_int.setValue(3);
+        StringWriter out = new StringWriter();
+        ParameterJson.write(new DParameter<?>[]{scaled1}, out);
+        assertTrue(out.toString().contains("\"Scaled\": 6"), "A holder that overrides addToDialog should write its own inputs.");
+
+        ScaledParameter scaled2 = new ScaledParameter();
+        ParameterJson.read(new DParameter<?>[]{scaled2}, new StringReader(out.toString()));
+        assertEquals(scaled2.M_int.getValue().intValue(), 3, "A holder that overrides readFromDialog should read its own inputs.");
+    }
+    // A holder that shows its parameter doubled
+    private static class ScaledParameter extends HoldingParameter<Integer> {
+        ScaledParameter()
+        {
+            super("Scaled");
+            M_int = addParameter(new IntParameter(1, "Int"));
+        }
+        @Override public Integer getValue() {return M_int.getValue();}
+        @Override public void addToDialog(DPDialog dialog)
+            {M_supplier = dialog.addInteger(label(), 2 * M_int.getValue(), "");}
+        @Override public void readFromDialog()
+            {M_int.setValue(M_supplier.get() / 2);}
+        IntParameter M_int;
+        private DPDialog.DialogInteger M_supplier;
+    }
+    @Test public void testRead() throws IOException
+    {
+        IntParameter param1 = new IntParameter(1, "a");
+        DoubleArrayParameter param2 = new DoubleArrayParameter(new double[]{1}, "b");
+        BoolParameter param3 = new BoolParameter("c", true);
+        String json = "{\"x\": {\"y\": [1, {}], \"z\": null}, \"a\": 7,\n"
+                    + "\"b\": [2, 3.5], \"c\": null}";
+        ParameterJson.read(new DParameter<?>[]{param1, param2, param3}, new StringReader(json));
+        assertEquals(param1.getValue().intValue(), 7, "Unknown members should be skipped.");
+        assertArrayEquals(param2.getValue(), new double[]{2, 3.5}, "Arrays of numbers should be given to text boxes.");
+        assertEquals(param3.getValue(), true, "A null value should leave the parameter alone.");
+    }
+    @Test public void testErrors()
+    {
+        IntParameter param = new IntParameter(1, "a");
+        boolean threw = false;
+        try {
+            ParameterJson.read(new DParameter<?>[]{param}, new StringReader("{\"a\": 2 \"b\": 3}"));
+        }
+        catch (IOException e) {
+            threw = true;
+        }
+        assertTrue(threw, "A missing comma should be an error.");
+
+        threw = false;
+        try {
+            ParameterJson.read(new DParameter<?>[]{param}, new StringReader("{\"a\": true}"));
+        }
+        catch (IllegalArgumentException | IOException e) {
+            threw = e instanceof IllegalArgumentException;
+        }
+        assertTrue(threw, "A value of the wrong type should be an error.");
+    }
+}
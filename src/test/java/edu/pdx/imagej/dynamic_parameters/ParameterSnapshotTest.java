@@ -0,0 +1,123 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import ij.ImagePlus;
+import ij.process.FloatProcessor;
+
+public class ParameterSnapshotTest {
+    @Test public void testEquality()
+    {
+        TestDialog dialog = new TestDialog();
+        IntParameter param = new IntParameter(1, "a");
+        param.addToDialog(dialog);
+        ParameterSnapshot snapshot1 = ParameterSnapshot.of(param);
+        ParameterSnapshot snapshot2 = ParameterSnapshot.of(param);
+        assertEquals(snapshot1, snapshot2, "Snapshots of the same values should be equal.");
+        assertEquals(snapshot1.hashCode(), snapshot2.hashCode(), "Snapshots of the same values should have the same hash code.");
+
+        dialog.getInteger(0).value = 2;
+        param.readFromDialog();
+        ParameterSnapshot snapshot3 = ParameterSnapshot.of(param);
+        assertNotEquals(snapshot1, snapshot3, "Snapshots of different values should not be equal.");
+        assertEquals(snapshot1.getValue(), 1, "A snapshot should not change when the parameter changes.");
+    }
+    @Test public void testArrays()
+    {
+        DoubleArrayParameter param = new DoubleArrayParameter(new double[]{1, 2}, "a");
+        ParameterSnapshot snapshot1 = ParameterSnapshot.of(param);
+        ParameterSnapshot snapshot2 = ParameterSnapshot.of(param);
+        assertEquals(snapshot1, snapshot2, "Snapshots of equal arrays should be equal.");
+        ((double[])snapshot1.getValue())[0] = 5;
+        assertEquals(((double[])snapshot1.getValue())[0], 1.0, "Changing the value from a snapshot should not change the snapshot.");
+    }
+    @Test public void testChildren()
+    {
+        TestHoldingParameter hold = new TestHoldingParameter();
+        IntParameter param1 = hold.addParameter(new IntParameter(1, "a"));
+        IntParameter param2 = hold.addParameter(new IntParameter(2, "b"));
+        BoolParameter param3 = hold.addParameter(new BoolParameter("c", true));
+        param2.setNewVisibility(false);
+        param2.refreshVisibility();
+        ParameterSnapshot snapshot1 = ParameterSnapshot.of(hold);
+        assertEquals(snapshot1.children().size(), 2, "A snapshot should only have the visible parameters.");
+        assertEquals(snapshot1.child("c").getValue(), true, "A snapshot should have the values of its children.");
+        assertTrue(snapshot1.child("b") == null, "A snapshot should not have invisible parameters.");
+
+        TestDialog dialog = new TestDialog();
+        hold.addToDialog(dialog);
+        dialog.getBoolean(0).value = false;
+        hold.readFromDialog();
+        ParameterSnapshot snapshot2 = ParameterSnapshot.of(hold, snapshot1);
+        assertTrue(snapshot2.child("a") == snapshot1.child("a"), "Parts of the tree that didn't change should be shared.");
+        assertTrue(ParameterSnapshot.of(hold, snapshot2) == snapshot2, "If nothing changed, the last snapshot should be returned.");
+    }
+    @Test public void testHolderValue()
+    {
+        // A holder whose value is a new object without equals every time
+        class NewValueParameter extends HoldingParameter<Object> {
+            NewValueParameter() {super("");}
+            @Override public Object getValue() {return new Object();}
+        }
+        NewValueParameter hold = new NewValueParameter();
+        hold.addParameter(new IntParameter(1, "a"));
+        ParameterSnapshot snapshot = ParameterSnapshot.of(hold);
+        assertEquals(ParameterSnapshot.of(hold), snapshot, "A holder should be captured by its children, not its value.");
+        assertTrue(ParameterSnapshot.of(hold, snapshot) == snapshot, "A holder that didn't change should give back the last snapshot.");
+    }
+    @Test public void testImages() throws IOException
+    {
+        ImagePlus imp1 = new ImagePlus("1", new FloatProcessor(new float[][]{{1}}));
+        ImagePlus imp2 = new ImagePlus("2", new FloatProcessor(new float[][]{{2}}));
+        ImageParameter image1 = new ImageParameter("a", new ImagePlus[]{imp1, imp2});
+        ImageParameter image2 = new ImageParameter("a", new ImagePlus[]{imp2, imp1});
+        image2.setValue(imp1);
+        assertEquals(ParameterSnapshot.of(image1), ParameterSnapshot.of(image2), "Snapshots of the same image should be equal.");
+        assertTrue(ParameterSnapshot.of(image1).getValue() == imp1, "A snapshot should give back the image.");
+        image2.setValue(imp2);
+        assertNotEquals(ParameterSnapshot.of(image1), ParameterSnapshot.of(image2), "Snapshots of different images should not be equal.");
+
+        MultiImageParameter multi = new MultiImageParameter("b", new ImagePlus[]{imp1, imp2});
+        assertEquals(ParameterSnapshot.of(multi).getValue(), Arrays.asList(imp1, imp2), "A snapshot should give back every chosen image.");
+
+        File directory = Files.createTempDirectory("images").toFile();
+        File file = new File(directory, "a.tif");
+        try {
+            file.createNewFile();
+            assertEquals(ParameterSnapshot.of(new ImageParameter("c", directory)),
+                         ParameterSnapshot.of(new ImageParameter("c", directory)),
+                         "Snapshots of the same file should be equal without opening it.");
+        }
+        finally {
+            file.delete();
+            directory.delete();
+        }
+    }
+}
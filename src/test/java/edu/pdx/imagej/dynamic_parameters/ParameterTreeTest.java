@@ -0,0 +1,84 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class ParameterTreeTest {
+    @Test public void testError()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        TestHoldingParameter inner = outer.addParameter(new TestHoldingParameter());
+        TestParameter param1 = inner.addParameter(new TestParameter());
+        TestParameter param2 = outer.addParameter(new TestParameter());
+        ParameterTree tree = new ParameterTree(new DParameter<?>[]{outer});
+
+        param2.error("b");
+        assertEquals(tree.error(), "b", "The tree should find errors in the parameters.");
+        param1.error("a");
+        assertEquals(tree.error(), "a", "The tree should find the first error in dialog order.");
+        inner.setNewVisibility(false);
+        assertTrue(tree.visibilityChanged(), "The tree should find visibility changes deep in the tree.");
+        tree.refreshVisibility();
+        assertTrue(!tree.visibilityChanged(), "Refreshing the visibility should refresh every parameter.");
+        assertEquals(tree.error(), "b", "Errors in invisible parameters should be skipped.");
+        assertEquals(tree.error(), outer.getError(), "The tree should find the same error as the parameters themselves.");
+    }
+    @Test public void testStructure()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        ParameterTree tree = new ParameterTree(new DParameter<?>[]{outer});
+        assertEquals(tree.width(), 0, "An empty tree should have no width.");
+        TestParameter param = outer.addParameter(new TestParameter());
+        param.width = 10;
+        assertEquals(tree.width(), 10, "The tree should see parameters added after it was made.");
+        outer.removeParameter(param);
+        assertEquals(tree.width(), 0, "The tree should see parameters being removed.");
+    }
+    @Test public void testSharedHolder()
+    {
+        TestHoldingParameter outer = new TestHoldingParameter();
+        ParameterTree tree1 = new ParameterTree(new DParameter<?>[]{outer});
+        ParameterTree tree2 = new ParameterTree(new DParameter<?>[]{outer});
+        DependencyGraph graph = new DependencyGraph(new DParameter<?>[]{outer}, () -> {});
+        TestParameter param = outer.addParameter(new TestParameter());
+        param.width = 10;
+        assertEquals(tree1.width(), 10, "Every tree of a holder should see parameters added to it.");
+        assertEquals(tree2.width(), 10, "Every tree of a holder should see parameters added to it.");
+        tree2.detach();
+        graph.detach();
+        TestParameter wider = outer.addParameter(new TestParameter());
+        wider.width = 20;
+        assertEquals(tree1.width(), 20, "A tree should keep listening after another tree stops.");
+    }
+    @Test public void testOverridden()
+    {
+        OverridingParameter outer = new OverridingParameter();
+        TestParameter param = outer.addParameter(new TestParameter());
+        param.error("a");
+        ParameterTree tree = new ParameterTree(new DParameter<?>[]{outer});
+        assertEquals(tree.error(), "overridden", "A HoldingParameter that overrides getError should use its own version.");
+    }
+    private static class OverridingParameter extends TestHoldingParameter {
+        @Override public String getError() {return "overridden";}
+    }
+}
@@ -23,6 +23,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.scijava.Context;
 import org.scijava.Priority;
 import org.scijava.plugin.AbstractRichPlugin;
@@ -116,6 +119,22 @@ public class PluginParameterTest {
             + "should work correctly even if the current plugin has no "
             + "parameter.");
     }
+    @Test public void testSetValue()
+    {
+        Context context = new Context(PluginService.class, PrefService.class);
+        PluginParameter<TestPluginType1> param
+            = new PluginParameter<>("", TestPluginType1.class);
+        context.inject(param);
+        param.setEnabled(TestPlugin1.class, true);
+        param.initialize();
+        param.refreshVisibility();
+
+        param.setValue(new TestPlugin1());
+        assertTrue(param.getValue() instanceof TestPlugin1, "PluginParameter "
+            + "should select the plugin with the class of the value.");
+        assertTrue(param.visibilityChanged(), "Selecting a plugin directly "
+            + "should change the visibility of the sub parameters.");
+    }
     @Test public void testEnabled()
     {
         Context context = new Context(PluginService.class, PrefService.class);
@@ -140,4 +159,25 @@ public class PluginParameterTest {
         param.readFromDialog();
         assertTrue(param.getValue() != null);
     }
+    @Test public void testMisspelled()
+    {
+        Context context = new Context(PluginService.class, PrefService.class);
+        PluginParameter<TestPluginType1> param
+            = new PluginParameter<>("a", TestPluginType1.class);
+        context.inject(param);
+        param.initialize();
+        Map<String, Object> values = new HashMap<>();
+        values.put("a", "3");
+        boolean threw = false;
+        try {
+            new Harvester("", param).populate(getClass(), values);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Populating a PluginParameter with a plugin that "
+            + "isn't one of the options should throw.");
+        assertTrue(param.getValue() != null, "A misspelled plugin should not "
+            + "clear the value.");
+    }
 }
@@ -0,0 +1,56 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class PrefixIndexTest {
+    @Test public void testPrefix()
+    {
+        PrefixIndex index = new PrefixIndex(
+            new String[] {"banana", "Apple", "apricot", "cherry", "ap"});
+        int start = index.start("ap");
+        int end = index.end("ap");
+        assertEquals(3, end - start, "PrefixIndex should find every string "
+            + "starting with the prefix, ignoring case.");
+        for (int i = start; i < end; ++i) {
+            assertTrue(index.get(i).toLowerCase().startsWith("ap"),
+                "PrefixIndex should only find strings starting with the "
+                + "prefix.");
+        }
+        assertEquals(index.size(), index.end("") - index.start(""),
+            "An empty prefix should match everything.");
+        assertEquals(0, index.end("z") - index.start("z"),
+            "A prefix that nothing starts with should match nothing.");
+        assertEquals("cherry", index.get(index.start("CH")), "PrefixIndex "
+            + "should ignore case in the prefix.");
+        assertEquals(3, index.originalIndex(index.start("ch")), "PrefixIndex "
+            + "should remember the original positions.");
+    }
+    @Test public void testReused()
+    {
+        String[] choices = {"b", "a"};
+        assertTrue(HarvesterDialog.prefixes(choices)
+                   == HarvesterDialog.prefixes(choices), "The sorted choices "
+            + "should only be made once for each list of choices.");
+    }
+}
@@ -0,0 +1,102 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PreviewerTest {
+    @Test public void testRateLimit() throws InterruptedException
+    {
+        TestPreview preview = new TestPreview(2, 0);
+        Previewer previewer = new Previewer(preview);
+        previewer.submit(snapshot(1));
+        Thread.sleep(100);
+        previewer.submit(snapshot(2));
+        previewer.submit(snapshot(3));
+        assertTrue(preview.done.await(5, TimeUnit.SECONDS), "The last values should be previewed.");
+        previewer.shutdown();
+        assertEquals(preview.values, Arrays.asList(1, 3), "Values that were replaced before their preview started should not be previewed.");
+    }
+    @Test public void testDuplicate() throws InterruptedException
+    {
+        TestPreview preview = new TestPreview(1, 0);
+        Previewer previewer = new Previewer(preview);
+        previewer.submit(snapshot(1));
+        previewer.submit(snapshot(1));
+        assertTrue(preview.done.await(5, TimeUnit.SECONDS), "The values should be previewed.");
+        Thread.sleep(600);
+        previewer.shutdown();
+        assertEquals(preview.values.size(), 1, "Values that didn't change should not be previewed again.");
+    }
+    @Test public void testCancel() throws InterruptedException
+    {
+        TestPreview preview = new TestPreview(1, 10000);
+        Previewer previewer = new Previewer(preview);
+        previewer.submit(snapshot(1));
+        Thread.sleep(100);
+        previewer.submit(snapshot(2));
+        assertTrue(preview.done.await(5, TimeUnit.SECONDS), "A stale preview should be interrupted.");
+        previewer.shutdown();
+        assertEquals(preview.interrupted, 1, "A stale preview should be interrupted.");
+    }
+
+    private static ParameterSnapshot snapshot(int value)
+    {
+        return ParameterSnapshot.of(new IntParameter(value, "a"));
+    }
+    private static class TestPreview implements Previewable {
+        TestPreview(int count, long sleep)
+        {
+            done = new CountDownLatch(count);
+            M_sleep = sleep;
+        }
+        @Override
+        public void preview(ParameterSnapshot snapshot)
+            throws InterruptedException
+        {
+            values.add((Integer)snapshot.getValue());
+            try {
+                Thread.sleep(M_sleep);
+            }
+            catch (InterruptedException e) {
+                ++interrupted;
+                throw e;
+            }
+            finally {
+                done.countDown();
+            }
+        }
+        @Override public long previewInterval() {return 500;}
+
+        final List<Integer> values = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done;
+        volatile int interrupted = 0;
+        private final long M_sleep;
+    }
+}
@@ -0,0 +1,64 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class ResultCacheTest {
+    @Test public void testCompute()
+    {
+        ResultCache<String> cache = new ResultCache<>(4);
+        int[] count = {0};
+        cache.computeIfAbsent(snapshot(1), values -> {++count[0]; return "a";});
+        String result = cache.computeIfAbsent(snapshot(1), values -> {++count[0]; return "b";});
+        assertEquals(result, "a", "Equal values should get the same result.");
+        assertEquals(count[0], 1, "A result should only be computed once.");
+    }
+    @Test public void testEntries()
+    {
+        ResultCache<String> cache = new ResultCache<>(2);
+        cache.put(snapshot(1), "a");
+        cache.put(snapshot(2), "b");
+        cache.get(snapshot(1));
+        cache.put(snapshot(3), "c");
+        assertEquals(cache.size(), 2, "The cache should not have more results than its maximum.");
+        assertEquals(cache.get(snapshot(1)), "a", "Recently used results should be kept.");
+        assertTrue(cache.get(snapshot(2)) == null, "The least recently used result should be thrown away.");
+    }
+    @Test public void testBytes()
+    {
+        ResultCache<String> cache = new ResultCache<>(10, 5, String::length);
+        cache.put(snapshot(1), "aa");
+        cache.put(snapshot(2), "bb");
+        cache.put(snapshot(3), "cc");
+        assertEquals(cache.bytes(), 4L, "The cache should not be larger than its maximum size.");
+        assertTrue(cache.get(snapshot(1)) == null, "The least recently used result should be thrown away.");
+        cache.put(snapshot(4), "dddddd");
+        assertTrue(cache.get(snapshot(4)) == null, "A result larger than the cache should not be kept.");
+        assertEquals(cache.size(), 2, "A result larger than the cache should not throw anything away.");
+    }
+
+    private static ParameterSnapshot snapshot(int value)
+    {
+        return ParameterSnapshot.of(new IntParameter(value, "a"));
+    }
+}
@@ -0,0 +1,194 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.scijava.Context;
+import org.scijava.prefs.PrefService;
+
+public class SweepTest {
+    @Test public void testCartesian()
+    {
+        Sweep sweep = new Sweep(new Context(PrefService.class), null)
+            .steps("a", 0.0, 1.0, 3)
+            .values("b", "x", "y");
+        List<Map<String, Object>> points = sweep.cartesian();
+        assertEquals(points.size(), 6, "A cartesian sweep should have every combination of values.");
+        assertEquals(points.get(0).get("a"), 0.0, "The first parameter should change the slowest.");
+        assertEquals(points.get(1).get("a"), 0.0, "The first parameter should change the slowest.");
+        assertEquals(points.get(2).get("a"), 0.5, "Ranges should be evenly spaced.");
+        assertEquals(points.get(5).get("a"), 1.0, "Ranges should include both ends.");
+        assertEquals(points.get(0).get("b"), "x", "The last parameter should change the fastest.");
+        assertEquals(points.get(1).get("b"), "y", "The last parameter should change the fastest.");
+    }
+    @Test public void testIntRange()
+    {
+        Sweep sweep = new Sweep(new Context(PrefService.class), null)
+            .stepSize("a", 1, 10, 4);
+        List<Map<String, Object>> points = sweep.cartesian();
+        assertEquals(points.size(), 3, "An integer range should only use values up to the maximum.");
+        assertEquals(points.get(2).get("a"), 9, "An integer range should go up by the step.");
+    }
+    @Test public void testLatinHypercube()
+    {
+        Sweep sweep = new Sweep(new Context(PrefService.class), null)
+            .steps("a", 0.0, 1.0, 2)
+            .range("b", 0, 9);
+        List<Map<String, Object>> points = sweep.latinHypercube(10, 1);
+        assertEquals(points.size(), 10, "Latin hypercube sampling should make the number of points asked for.");
+        HashSet<Integer> aParts = new HashSet<>();
+        HashSet<Object> bValues = new HashSet<>();
+        for (Map<String, Object> point : points) {
+            aParts.add((int)((Double)point.get("a") * 10));
+            bValues.add(point.get("b"));
+        }
+        assertEquals(aParts.size(), 10, "Latin hypercube sampling should use every part of a range once.");
+        assertEquals(bValues.size(), 10, "Latin hypercube sampling should use every part of a range once.");
+        assertEquals(sweep.latinHypercube(10, 1), points, "Latin hypercube sampling should be the same with the same seed.");
+    }
+    @Test public void testValues()
+    {
+        Context context = new Context(PrefService.class);
+        IntParameter param1 = new IntParameter(1, "a");
+        ChoiceParameter param2 = new ChoiceParameter("b", new String[]{"x", "y"}, "x");
+        DoubleArrayParameter param3 = new DoubleArrayParameter(new double[]{1}, "c");
+        context.inject(param1);
+        context.inject(param2);
+        context.inject(param3);
+        Map<String, Object> values = new HashMap<>();
+        values.put("a", 3);
+        values.put("c", new double[]{2, 3});
+        new Harvester("", param1, param2, param3).populate(getClass(), values);
+        assertEquals(param1.getValue().intValue(), 3, "Populating with values should set the parameters in the values.");
+        assertEquals(param2.getValue(), "x", "Populating with values should not change parameters not in the values.");
+        assertEquals(param3.getValue().length, 2, "Populating with values should work for array parameters.");
+
+        values.put("a", "three");
+        values.remove("c");
+        boolean threw = false;
+        try {
+            new Harvester("", param1).populate(getClass(), values);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Populating with a value of the wrong type should throw.");
+
+        values.put("a", 3);
+        values.put("d", 4);
+        threw = false;
+        try {
+            new Harvester("", param1).populate(getClass(), values);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "Populating with a value for no parameter should throw.");
+    }
+    @Test public void testPaths()
+    {
+        Context context = new Context(PrefService.class);
+        TestHoldingParameter group1 = new TestHoldingParameter("g");
+        TestHoldingParameter group2 = new TestHoldingParameter("h");
+        IntParameter param1 = group1.addParameter(new IntParameter(1, "a"));
+        IntParameter param2 = group2.addParameter(new IntParameter(1, "a"));
+        IntParameter param3 = group2.addParameter(new IntParameter(1, "b"));
+        context.inject(group1);
+        context.inject(group2);
+        context.inject(param1);
+        context.inject(param2);
+        context.inject(param3);
+        Map<String, Object> values = new HashMap<>();
+        values.put("g.a", 2);
+        values.put("h.a", 3);
+        values.put("b", 4);
+        new Harvester("", group1, group2).populate(getClass(), values);
+        assertEquals(param1.getValue().intValue(), 2, "Parameters should be found by their path.");
+        assertEquals(param2.getValue().intValue(), 3, "Parameters with the same label should get their own values.");
+        assertEquals(param3.getValue().intValue(), 4, "A label that only one parameter has should be enough.");
+
+        values.clear();
+        values.put("a", 5);
+        boolean threw = false;
+        try {
+            new Harvester("", group1, group2).populate(getClass(), values);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "A label that more than one parameter has should throw.");
+        assertEquals(param1.getValue().intValue(), 2, "An ambiguous label should not change any parameter.");
+    }
+    @Test public void testMisspelledChoice()
+    {
+        Context context = new Context(PrefService.class);
+        ChoiceParameter choice = new ChoiceParameter("a", new String[]{"x", "y"}, "x");
+        RadioParameter radio = new RadioParameter("b", new String[]{"x", "y"}, "x", 1, 2);
+        context.inject(choice);
+        context.inject(radio);
+        DParameter<?>[] params = {choice, radio};
+        String[] labels = {"a", "b"};
+        for (int i = 0; i < params.length; ++i) {
+            Map<String, Object> values = new HashMap<>();
+            values.put(labels[i], "z");
+            boolean threw = false;
+            try {
+                new Harvester("", params[i]).populate(getClass(), values);
+            }
+            catch (IllegalArgumentException e) {
+                threw = true;
+            }
+            assertTrue(threw, "Populating " + labels[i] + " with a choice that isn't one of the options should throw.");
+        }
+        assertEquals(choice.getValue(), "x", "A misspelled choice should not change the value.");
+        assertEquals(radio.getValue(), "x", "A misspelled choice should not change the value.");
+    }
+    @Test public void testChoiceIndex()
+    {
+        String[] choices = {"1: x", "2: y", "3: y"};
+        Map<String, Object> values = new HashMap<>();
+        Map<String, Object> record = new HashMap<>();
+        values.put("a", "x");
+        values.put("b", "3: y");
+        ValueDialog dialog = new ValueDialog(values, record);
+        assertEquals(dialog.addChoiceIndex("a", "1: x", choices).get().intValue(), 0, "An image should be chosen by its title alone.");
+        assertEquals(dialog.addChoiceIndex("b", "1: x", choices).get().intValue(), 2, "An image should be chosen by its whole option.");
+        assertEquals(record.get("a"), "x", "A choice should be recorded by its title.");
+        assertEquals(record.get("b"), "3: y", "A choice whose title isn't unique should be recorded whole.");
+
+        values.put("a", "z");
+        boolean threw = false;
+        try {
+            dialog.addChoiceIndex("a", "1: x", choices);
+        }
+        catch (IllegalArgumentException e) {
+            threw = true;
+        }
+        assertTrue(threw, "A choice that isn't one of the options should throw.");
+    }
+}
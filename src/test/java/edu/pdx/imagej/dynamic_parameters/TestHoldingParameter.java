@@ -0,0 +1,29 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+// A HoldingParameter whose parameters can be changed from the tests
+class TestHoldingParameter extends HoldingParameter<Boolean> {
+    TestHoldingParameter() {super("");}
+    TestHoldingParameter(String label) {super(label);}
+    @Override public Boolean getValue() {return null;}
+    @Override public <T extends DParameter<?>> T addParameter(T param) {return super.addParameter(param);}
+    @Override public boolean removeParameter(DParameter<?> param) {return super.removeParameter(param);}
+}
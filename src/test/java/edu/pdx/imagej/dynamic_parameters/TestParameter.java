@@ -0,0 +1,50 @@
+/* Copyright (C) 2019 Portland State University
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of version 3 of the GNU Lesser General Public License
+ * as published by the Free Software Foundation.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * For any questions regarding the license, please contact the Free Software
+ * Foundation.  For any other questions regarding this program, please contact
+ * David Cohoe at dcohoe@pdx.edu.
+ */
+
+package edu.pdx.imagej.dynamic_parameters;
+
+import java.util.List;
+
+// A parameter that puts nothing on the dialog, but whose error, width, and
+// dependencies can be set from the tests.  If it is given a list, its label
+// is added to it every time a dependency changes.
+class TestParameter extends AbstractDParameter<Boolean> {
+    TestParameter() {this("");}
+    TestParameter(String label) {this(label, null);}
+    TestParameter(String label, List<String> updates)
+    {
+        super(label);
+        M_updates = updates;
+    }
+    void error(String error) {setError(error);}
+    void depend(DParameter<?> param) {dependsOn(param);}
+    @Override
+    public void dependencyChanged()
+    {
+        if (M_updates != null) M_updates.add(label());
+    }
+    @Override public int width() {return width;}
+    @Override public Boolean getValue() {return null;}
+    @Override public void addToDialog(DPDialog dialog) {}
+    @Override public void readFromDialog() {}
+    @Override public void saveToPrefs(Class<?> c, String name) {}
+    @Override public void readFromPrefs(Class<?> c, String name) {}
+    int width = 0;
+    private final List<String> M_updates;
+}